@@ -0,0 +1,94 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.businterface;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.alljoyn.bus.Variant;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.kaizencode.tchaikovsky.exception.SpeakerException;
+import de.kaizencode.tchaikovsky.speaker.remote.RemotePlaylistItem;
+
+/**
+ * Compares converting the variants of a playlist item on every access with the values memoized by
+ * {@link RemotePlaylistItem}. Requires the AllJoyn native library on the <code>java.library.path</code>, as variants
+ * release their native message argument when collected. Run with <code>gradle jmh</code>.
+ * 
+ * @author Dominic Lerbs
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariantConverterBenchmark {
+
+    @Param({ "2", "8", "32" })
+    public int entries;
+
+    private Map<String, Variant> mediumDescription;
+    private Variant userData;
+    private RemotePlaylistItem item;
+
+    @Setup
+    public void setUp() {
+        mediumDescription = new HashMap<>();
+        for (int i = 0; i < entries; i++) {
+            Variant value = i % 2 == 0 ? new Variant("value" + i, "s") : new Variant((long) i, "x");
+            mediumDescription.put("key" + i, value);
+        }
+        userData = new Variant("user data", "s");
+        item = new RemotePlaylistItem();
+        item.mediumDescription = mediumDescription;
+        item.userData = userData;
+    }
+
+    @Benchmark
+    public Map<String, Object> convertMediumDescription() throws SpeakerException {
+        return VariantConverter.convertToMap(mediumDescription);
+    }
+
+    @Benchmark
+    public Map<String, Object> memoizedMediumDescription() throws SpeakerException {
+        return item.getMediumDescription();
+    }
+
+    @Benchmark
+    public Object convertUserData() throws SpeakerException {
+        return VariantConverter.convert(userData);
+    }
+
+    @Benchmark
+    public Object memoizedUserData() throws SpeakerException {
+        return item.getUserData();
+    }
+
+}
@@ -0,0 +1,73 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.bussignal;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.kaizencode.tchaikovsky.bus.SpeakerBusHandler;
+
+/**
+ * Measures the cost of routing a signal to the handler of its session, for an increasing number of sessions. The cost
+ * is expected to stay flat. Requires the AllJoyn native library on the <code>java.library.path</code>, as the
+ * handlers create AllJoyn session listeners. Run with <code>gradle jmh</code>.
+ * 
+ * @author Dominic Lerbs
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignalDispatchBenchmark {
+
+    private static final int FIRST_SESSION_ID = 1000;
+
+    @Param({ "1", "10", "100", "1000" })
+    public int sessions;
+
+    private MediaPlayerSignalHandler signalHandler;
+    private int nextSession = 0;
+
+    @Setup
+    public void setUp() {
+        signalHandler = new MediaPlayerSignalHandler(null);
+        for (int i = 0; i < sessions; i++) {
+            SpeakerBusHandler handler = new SpeakerBusHandler(null, "speaker" + i, (short) 0, signalHandler);
+            signalHandler.addSpeakerBusHandler(FIRST_SESSION_ID + i, handler);
+        }
+    }
+
+    @Benchmark
+    public void dispatch() {
+        nextSession = (nextSession + 1) % sessions;
+        signalHandler.dispatch(FIRST_SESSION_ID + nextSession, listener -> listener.onVolumeChanged(10));
+    }
+
+}
@@ -16,19 +16,44 @@
  */
 package de.kaizencode.tchaikovsky;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.alljoyn.bus.BusAttachment;
 import org.alljoyn.bus.Status;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import de.kaizencode.tchaikovsky.bussignal.MediaPlayerSignalHandler;
+import de.kaizencode.tchaikovsky.bussignal.SpeakerEventDispatcher;
+import de.kaizencode.tchaikovsky.concurrent.AsyncCalls;
+import de.kaizencode.tchaikovsky.discovery.DiscoveryExecutor;
 import de.kaizencode.tchaikovsky.discovery.SpeakerAboutListener;
 import de.kaizencode.tchaikovsky.discovery.SpeakerBusListener;
+import de.kaizencode.tchaikovsky.discovery.SpeakerDetailsCache;
+import de.kaizencode.tchaikovsky.discovery.SpeakerRegistry;
 import de.kaizencode.tchaikovsky.exception.ConnectionException;
 import de.kaizencode.tchaikovsky.exception.DiscoveryException;
+import de.kaizencode.tchaikovsky.health.HealthMonitor;
 import de.kaizencode.tchaikovsky.listener.SpeakerAnnouncedListener;
+import de.kaizencode.tchaikovsky.listener.SpeakerChangedListener;
+import de.kaizencode.tchaikovsky.speaker.Speaker;
+import de.kaizencode.tchaikovsky.speaker.SpeakerGroup;
+import de.kaizencode.tchaikovsky.speaker.remote.PlaylistItemPool;
+import de.kaizencode.tchaikovsky.speaker.remote.RemoteSpeaker;
+import de.kaizencode.tchaikovsky.speaker.remote.RemoteSpeaker.SignalPriming;
 
 /**
  * Main class for connecting to the AllJoyn bus and starting the discovery process.
@@ -51,7 +76,24 @@ public class AllPlay {
     private BusAttachment busAttachment;
     private SpeakerAboutListener aboutListener;
     private SpeakerBusListener busListener;
+    private DiscoveryExecutor discoveryExecutor;
+    private SpeakerRegistry speakerRegistry;
+    private SpeakerEventDispatcher eventDispatcher;
     private String applicationName = "Tchaikovsky";
+    private int discoveryParallelism = DiscoveryExecutor.DEFAULT_PARALLELISM;
+    private int discoveryQueueLimit = DiscoveryExecutor.DEFAULT_QUEUE_LIMIT;
+    private Path speakerDetailsCacheFile;
+    private Executor eventExecutor;
+    private Executor callExecutor;
+    private AsyncCalls calls;
+    private int maxCallsPerSpeaker = AsyncCalls.DEFAULT_MAX_CALLS_PER_SPEAKER;
+    private int maxQueuedCallsPerSpeaker = AsyncCalls.DEFAULT_MAX_QUEUED_CALLS_PER_SPEAKER;
+    private boolean autoReconnect = false;
+    private SignalPriming signalPriming = SignalPriming.PLAYLIST;
+    private boolean compactPlayState = false;
+    private final PlaylistItemPool playlistItemPool = new PlaylistItemPool();
+    private long discoverySessionReuseTimeoutInMs = 0;
+    private final HealthMonitor healthMonitor = new HealthMonitor();
 
     /**
      * AllJoyn allows two discovery modes: Either via the well-known name prefix of a speaker {@link #NAME_BASED}) or
@@ -83,12 +125,25 @@ public class AllPlay {
         busAttachment = new BusAttachment(applicationName, BusAttachment.RemoteMessage.Receive);
 
         connectToBus();
-        busListener = new SpeakerBusListener(busAttachment);
-        aboutListener = new SpeakerAboutListener(busAttachment);
+        discoveryExecutor = new DiscoveryExecutor(discoveryParallelism, discoveryQueueLimit);
+        eventDispatcher = new SpeakerEventDispatcher(eventExecutor);
+        calls = new AsyncCalls(callExecutor != null ? callExecutor : AsyncCalls.getDefaultExecutor(),
+                maxCallsPerSpeaker, maxQueuedCallsPerSpeaker);
+        speakerRegistry = new SpeakerRegistry(busAttachment, eventDispatcher, calls, playlistItemPool);
+        speakerRegistry.setAutoReconnect(autoReconnect);
+        speakerRegistry.setSignalPriming(signalPriming);
+        speakerRegistry.setCompactPlayState(compactPlayState);
+        if (speakerDetailsCacheFile != null) {
+            SpeakerDetailsCache detailsCache = new SpeakerDetailsCache(speakerDetailsCacheFile);
+            detailsCache.load();
+            speakerRegistry.setDetailsCache(detailsCache);
+        }
         for (SpeakerAnnouncedListener listener : speakerAnnounedListeners) {
-            aboutListener.addSpeakerAnnouncedListener(listener);
-            busListener.addSpeakerAnnouncedListener(listener);
+            speakerRegistry.addSpeakerAnnouncedListener(listener);
         }
+        busListener = new SpeakerBusListener(busAttachment, speakerRegistry, discoveryExecutor);
+        busListener.setSessionReuseTimeout(discoverySessionReuseTimeoutInMs);
+        aboutListener = new SpeakerAboutListener(speakerRegistry);
         busAttachment.registerAboutListener(aboutListener);
         busAttachment.registerBusListener(busListener);
     }
@@ -105,6 +160,15 @@ public class AllPlay {
                 busAttachment.disconnect();
             }
             busAttachment = null;
+            healthMonitor.stop();
+            // The speakers are bound to the bus attachment which has been torn down
+            healthMonitor.removeAllSpeakers();
+            speakerRegistry.removeSpeakerAnnouncedListener(healthMonitor);
+            discoveryExecutor.shutdown();
+            SpeakerDetailsCache detailsCache = speakerRegistry.getDetailsCache();
+            if (detailsCache != null) {
+                detailsCache.close();
+            }
         } else {
             logger.debug("Disconnect requested, but not connected to bus - ignoring");
         }
@@ -130,7 +194,9 @@ public class AllPlay {
 
     /**
      * Start the discovery of AllPlay speakers using the given {@link DiscoveryMode}. Bus connection has to be
-     * established first using {@link #connect()} method.
+     * established first using {@link #connect()} method. If a speaker details cache has been set with
+     * {@link #setSpeakerDetailsCache(Path)}, all cached speakers are announced immediately and revalidated as soon as
+     * they are found on the bus.
      * 
      * @param mode
      *            The {@link DiscoveryMode} to use
@@ -138,6 +204,7 @@ public class AllPlay {
      *             Exception while looking for available speakers.
      */
     public void discoverSpeakers(DiscoveryMode mode) throws DiscoveryException {
+        speakerRegistry.registerCachedSpeakers();
         if (mode == DiscoveryMode.NAME_BASED) {
             findAdvertisedName(SERVICE_NAME);
         } else {
@@ -178,6 +245,215 @@ public class AllPlay {
         }
     }
 
+    /**
+     * Sets the limits of the discovery worker pool used in {@link DiscoveryMode#NAME_BASED}. Has to be called before
+     * {@link #connect()} to take effect.
+     * 
+     * @param parallelism
+     *            Maximum number of speakers for which the about data is retrieved in parallel
+     * @param queueLimit
+     *            Maximum number of found speakers waiting to be processed
+     */
+    public void setDiscoveryLimits(int parallelism, int queueLimit) {
+        if (parallelism < 1 || queueLimit < 1) {
+            throw new IllegalArgumentException("Parallelism and queue limit have to be at least 1");
+        }
+        discoveryParallelism = parallelism;
+        discoveryQueueLimit = queueLimit;
+    }
+
+    /**
+     * Enables reusing the session joined for retrieving the about data in {@link DiscoveryMode#NAME_BASED} as control
+     * session of the speaker, which saves a session setup round trip per speaker when connecting shortly after the
+     * discovery. Sessions not used within the idle timeout are left. Has to be called before {@link #connect()} to
+     * take effect.
+     * 
+     * @param idleTimeoutInMs
+     *            Time in milliseconds after which an unused discovery session is left, or 0 to disable reuse (default)
+     */
+    public void setDiscoverySessionReuse(long idleTimeoutInMs) {
+        if (idleTimeoutInMs < 0) {
+            throw new IllegalArgumentException("Idle timeout must not be negative");
+        }
+        discoverySessionReuseTimeoutInMs = idleTimeoutInMs;
+    }
+
+    /**
+     * Enables a persistent cache of speaker details, so that speakers known from a previous run are announced
+     * immediately on discovery instead of after their about data has been retrieved. Note that cached speakers are
+     * announced even if they are currently not reachable. Has to be called before {@link #connect()} to take effect.
+     * 
+     * @param cacheFile
+     *            The file to store the speaker details in, or null to disable the cache
+     */
+    public void setSpeakerDetailsCache(Path cacheFile) {
+        speakerDetailsCacheFile = cacheFile;
+    }
+
+    /**
+     * Sets the {@link Executor} on which {@link SpeakerChangedListener}s are called. Events of a single speaker are
+     * delivered in order, while events of different speakers are delivered in parallel. If no executor is set,
+     * listeners are called directly on the AllJoyn signal thread, so a slow listener delays the signals of all
+     * speakers. Has to be called before {@link #connect()} to take effect.
+     * 
+     * @param executor
+     *            The {@link Executor} to call listeners on, or null to call them on the signal thread
+     */
+    public void setEventExecutor(Executor executor) {
+        eventExecutor = executor;
+    }
+
+    /**
+     * Sets the {@link Executor} on which blocking calls of the speakers are run, e.g. asynchronous operations,
+     * coalesced commands and reconnects. If no executor is set, the library-managed executor of {@link AsyncCalls} is
+     * used. Has to be called before {@link #connect()} to take effect.
+     * 
+     * @param executor
+     *            The {@link Executor} to run calls on, or null to use the library-managed executor
+     */
+    public void setCallExecutor(Executor executor) {
+        callExecutor = executor;
+    }
+
+    /**
+     * Sets the share of the call executor each speaker may use. Calls blocked in native AllJoyn code cannot be
+     * interrupted, so a speaker which stopped responding keeps its threads until the AllJoyn reply timeout. Limiting
+     * the calls per speaker keeps such a speaker from occupying the threads needed by other speakers. Has to be called
+     * before {@link #connect()} to take effect.
+     * 
+     * @param maxCalls
+     *            Maximum number of calls of a single speaker running at the same time
+     * @param maxQueuedCalls
+     *            Maximum number of calls of a single speaker waiting for a running call, further calls are rejected
+     */
+    public void setCallLimits(int maxCalls, int maxQueuedCalls) {
+        if (maxCalls < 1 || maxQueuedCalls < 0) {
+            throw new IllegalArgumentException("Call limit has to be positive and queue limit must not be negative");
+        }
+        maxCallsPerSpeaker = maxCalls;
+        maxQueuedCallsPerSpeaker = maxQueuedCalls;
+    }
+
+    /**
+     * Enables or disables automatic reconnection of all discovered speakers, see
+     * {@link Speaker#setAutoReconnect(boolean)}. Reconnect attempts are spread randomly, so that speakers which lost
+     * their session at the same time do not reconnect at the same time.
+     * 
+     * @param enabled
+     *            True to reconnect speakers automatically after their session has been lost
+     */
+    public void setAutoReconnect(boolean enabled) {
+        autoReconnect = enabled;
+        if (speakerRegistry != null) {
+            speakerRegistry.setAutoReconnect(enabled);
+        }
+    }
+
+    /**
+     * Sets the call activating signal delivery of all discovered speakers after their session has been joined, see
+     * {@link RemoteSpeaker#setSignalPriming(SignalPriming)}.
+     * 
+     * @param priming
+     *            The {@link SignalPriming} to use, {@link SignalPriming#PLAYLIST} by default
+     */
+    public void setSignalPriming(SignalPriming priming) {
+        signalPriming = priming;
+        if (speakerRegistry != null) {
+            speakerRegistry.setSignalPriming(priming);
+        }
+    }
+
+    /**
+     * Enables or disables the compact play state mode, see
+     * {@link MediaPlayerSignalHandler#setCompactPlayState(boolean)}. Play states received in signals then refer to the
+     * cached playlist of the speaker if their items are unchanged, which saves memory when listeners keep play states.
+     * Only effective while the playlist cache is enabled.
+     * 
+     * @param enabled
+     *            True to enable the compact play state mode
+     */
+    public void setCompactPlayState(boolean enabled) {
+        compactPlayState = enabled;
+        if (speakerRegistry != null) {
+            speakerRegistry.setCompactPlayState(enabled);
+        }
+    }
+
+    /**
+     * Enables deduplication of playlist items received from speakers. Equal items in playlists and play states of all
+     * speakers of this instance are replaced by a single shared instance, which saves memory for large playlists.
+     * Shared items must not be modified.
+     * 
+     * @param maxItems
+     *            Maximum number of items kept in the pool
+     * @param maxStrings
+     *            Maximum number of strings kept in the pool
+     */
+    public void enablePlaylistItemPool(int maxItems, int maxStrings) {
+        playlistItemPool.enable(maxItems, maxStrings);
+    }
+
+    /**
+     * Disables deduplication of playlist items and releases the pooled items.
+     */
+    public void disablePlaylistItemPool() {
+        playlistItemPool.disable();
+    }
+
+    /**
+     * @return The {@link PlaylistItemPool}, reporting the memory saved by deduplication
+     */
+    public PlaylistItemPool getPlaylistItemPool() {
+        return playlistItemPool;
+    }
+
+    /**
+     * Starts the {@link HealthMonitor}, which periodically pings all discovered speakers, including speakers discovered
+     * later on.
+     * 
+     * @throws ConnectionException
+     *             if not connected to the bus
+     */
+    public void startHealthMonitor() throws ConnectionException {
+        if (speakerRegistry == null) {
+            throw new ConnectionException("Unable to start health monitor, not connected to bus",
+                    Status.BUS_NOT_CONNECTED);
+        }
+        speakerRegistry.addSpeakerAnnouncedListener(healthMonitor);
+        healthMonitor.start(getSpeakers());
+    }
+
+    /**
+     * Stops the {@link HealthMonitor}.
+     */
+    public void stopHealthMonitor() {
+        healthMonitor.stop();
+        if (speakerRegistry != null) {
+            speakerRegistry.removeSpeakerAnnouncedListener(healthMonitor);
+        }
+    }
+
+    /**
+     * @return The {@link HealthMonitor} for configuration, liveness listeners and the health of all speakers
+     */
+    public HealthMonitor getHealthMonitor() {
+        return healthMonitor;
+    }
+
+    /**
+     * @return The {@link SpeakerEventDispatcher} providing event delivery metrics, or null if not connected to the bus
+     */
+    public SpeakerEventDispatcher getEventDispatcher() {
+        return eventDispatcher;
+    }
+
+    /**
+     * @return The {@link DiscoveryExecutor} providing discovery metrics, or null if not connected to the bus
+     */
+    public DiscoveryExecutor getDiscoveryExecutor() {
+        return discoveryExecutor;
+    }
+
     /**
      * Add a listener for discovered speakers.
      * 
@@ -188,11 +464,8 @@ public class AllPlay {
      */
     public void addSpeakerAnnouncedListener(SpeakerAnnouncedListener listener) throws DiscoveryException {
         speakerAnnounedListeners.add(listener);
-        if (aboutListener != null) {
-            aboutListener.addSpeakerAnnouncedListener(listener);
-        }
-        if (busListener != null) {
-            busListener.addSpeakerAnnouncedListener(listener);
+        if (speakerRegistry != null) {
+            speakerRegistry.addSpeakerAnnouncedListener(listener);
         }
     }
 
@@ -204,12 +477,104 @@ public class AllPlay {
      */
     public void removeSpeakerAnnouncedListener(SpeakerAnnouncedListener listener) {
         speakerAnnounedListeners.remove(listener);
-        if (aboutListener != null) {
-            aboutListener.removeSpeakerAnnouncedListener(listener);
+        if (speakerRegistry != null) {
+            speakerRegistry.removeSpeakerAnnouncedListener(listener);
         }
-        if (busListener != null) {
-            busListener.removeSpeakerAnnouncedListener(listener);
+    }
+
+    /**
+     * @return All speakers discovered since the last {@link #connect()}, regardless of the {@link DiscoveryMode}
+     */
+    public Collection<Speaker> getSpeakers() {
+        if (speakerRegistry == null) {
+            return Collections.emptyList();
+        }
+        return speakerRegistry.getSpeakers();
+    }
+
+    /**
+     * Connects to all given speakers asynchronously, with at most <code>parallelism</code> session joins in flight at
+     * the same time.
+     * 
+     * @param speakers
+     *            The {@link Speaker}s to connect to
+     * @param parallelism
+     *            Maximum number of speakers connecting at the same time
+     * @return Future per speaker, completing with the time in milliseconds from the start of its connect until it was
+     *         connected, or with a {@link ConnectionException} if the connection failed
+     */
+    public Map<Speaker, CompletableFuture<Long>> connectAll(Collection<Speaker> speakers, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism has to be at least 1");
+        }
+        Map<Speaker, CompletableFuture<Long>> results = new LinkedHashMap<>();
+        Queue<Runnable> pendingConnects = new ConcurrentLinkedQueue<>();
+        for (Speaker speaker : speakers) {
+            CompletableFuture<Long> result = new CompletableFuture<>();
+            results.put(speaker, result);
+            pendingConnects.add(() -> connectTimed(speaker, result, pendingConnects));
+        }
+        for (int i = 0; i < parallelism; i++) {
+            startNextConnect(pendingConnects);
+        }
+        return results;
+    }
+
+    private void connectTimed(Speaker speaker, CompletableFuture<Long> result, Queue<Runnable> pendingConnects) {
+        long start = System.nanoTime();
+        CompletableFuture<Void> connect;
+        try {
+            connect = speaker.connectAsync();
+        } catch (RuntimeException e) {
+            connect = new CompletableFuture<>();
+            connect.completeExceptionally(e);
+        }
+        connect.whenComplete((value, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                logger.debug("Unable to connect to speaker " + speaker + ": " + cause.getMessage());
+                result.completeExceptionally(cause);
+            } else {
+                long timeToConnectedInMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                logger.debug("Connected to speaker " + speaker + " in " + timeToConnectedInMs + "ms");
+                result.complete(timeToConnectedInMs);
+            }
+            // Continue on the executor, as a connect failing synchronously would otherwise recurse for all speakers
+            Executor executor = calls != null ? calls.getExecutor() : AsyncCalls.getDefaultExecutor();
+            try {
+                executor.execute(() -> startNextConnect(pendingConnects));
+            } catch (RejectedExecutionException e) {
+                logger.warn("Executor rejected next connect, continuing on the current thread");
+                startNextConnect(pendingConnects);
+            }
+        });
+    }
+
+    private void startNextConnect(Queue<Runnable> pendingConnects) {
+        Runnable next = pendingConnects.poll();
+        if (next != null) {
+            next.run();
+        }
+    }
+
+    /**
+     * @return A {@link SpeakerGroup} of all discovered speakers, for executing commands on all of them in parallel
+     */
+    public SpeakerGroup getSpeakerGroup() {
+        return new SpeakerGroup(getSpeakers());
+    }
+
+    /**
+     * @param deviceId
+     *            The ID of the device
+     * @return The discovered {@link Speaker} with the given device ID, or null if no such speaker has been discovered
+     */
+    public Speaker getSpeaker(String deviceId) {
+        if (speakerRegistry == null) {
+            return null;
         }
+        return speakerRegistry.getSpeaker(deviceId);
     }
 
     private void connectToBus() throws ConnectionException {
@@ -0,0 +1,212 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.bus;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Circuit breaker of a single speaker. The circuit opens after a number of consecutive failed calls or when the
+ * session to the speaker is lost. While open, calls are rejected immediately instead of waiting for the bus to time
+ * out. After the open duration has passed, the next call pings the speaker and, if the ping succeeds, is let through as
+ * a trial call (half-open). A successful trial call closes the circuit, a failed one opens it again.
+ * 
+ * @author Dominic Lerbs
+ */
+public class CircuitBreaker {
+
+    private final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    /**
+     * State of a {@link CircuitBreaker}.
+     */
+    public enum State {
+        /** Calls are passed to the speaker */
+        CLOSED,
+        /** Calls are rejected */
+        OPEN,
+        /** A single trial call is passed to the speaker, all others are rejected */
+        HALF_OPEN
+    }
+
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_OPEN_DURATION_IN_MS = 10000;
+    public static final int DEFAULT_PROBE_TIMEOUT_IN_MS = 2000;
+
+    private final SpeakerBusHandler busHandler;
+
+    private volatile int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+    private volatile long openDurationInMs = DEFAULT_OPEN_DURATION_IN_MS;
+    private volatile int probeTimeoutInMs = DEFAULT_PROBE_TIMEOUT_IN_MS;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAt;
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    CircuitBreaker(SpeakerBusHandler busHandler) {
+        this.busHandler = busHandler;
+    }
+
+    /**
+     * @param failureThreshold
+     *            Number of consecutive failed calls after which the circuit opens
+     * @param openDurationInMs
+     *            Time the circuit stays open before the speaker is probed again
+     * @param probeTimeoutInMs
+     *            Timeout of the ping probing the speaker
+     */
+    public void configure(int failureThreshold, long openDurationInMs, int probeTimeoutInMs) {
+        if (failureThreshold < 1 || openDurationInMs < 0 || probeTimeoutInMs <= 0) {
+            throw new IllegalArgumentException("Invalid circuit breaker configuration");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openDurationInMs = openDurationInMs;
+        this.probeTimeoutInMs = probeTimeoutInMs;
+    }
+
+    /**
+     * @return The current {@link State}
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return True if calls are currently passed to the speaker
+     */
+    public synchronized boolean isClosed() {
+        return state == State.CLOSED;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /**
+     * @return Number of calls rejected since creation
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Checks if a call may be passed to the speaker. If the circuit is open and the open duration has passed, the
+     * speaker is pinged and the call is let through as trial call if the ping succeeds.
+     * 
+     * @return True if the call may be executed, false if it has to be rejected
+     */
+    public boolean tryAcquire() {
+        synchronized (this) {
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (state == State.HALF_OPEN
+                    || System.nanoTime() - openedAt < TimeUnit.MILLISECONDS.toNanos(openDurationInMs)) {
+                rejectedCount.incrementAndGet();
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+
+        boolean alive;
+        try {
+            alive = busHandler.ping(probeTimeoutInMs);
+        } catch (RuntimeException e) {
+            logger.debug("Probing speaker " + busHandler.getHostName() + " failed", e);
+            alive = false;
+        }
+
+        synchronized (this) {
+            if (state != State.HALF_OPEN) {
+                // Changed concurrently, e.g. reset after reconnect
+                return state == State.CLOSED;
+            }
+            if (!alive) {
+                open("ping failed");
+                rejectedCount.incrementAndGet();
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Records a successful call. Closes the circuit if it was half-open.
+     */
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.CLOSED);
+        }
+    }
+
+    /**
+     * Records a failed call. Opens the circuit if the failure threshold is reached or a trial call failed.
+     */
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN) {
+            open("trial call failed");
+        } else if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+            open(consecutiveFailures + " consecutive failures");
+        }
+    }
+
+    /**
+     * Records a call which ended without an outcome, e.g. because it has been interrupted or failed locally. It does
+     * not count as failure, but if it was the trial call, the circuit opens again so that a later call probes the
+     * speaker instead of all calls being rejected.
+     */
+    public synchronized void recordAbandoned() {
+        if (state == State.HALF_OPEN) {
+            open("trial call did not complete");
+        }
+    }
+
+    /**
+     * Opens the circuit immediately.
+     * 
+     * @param reason
+     *            Reason for logging
+     */
+    public synchronized void open(String reason) {
+        logger.info("Opening circuit for speaker " + busHandler.getHostName() + ": " + reason);
+        openedAt = System.nanoTime();
+        transitionTo(State.OPEN);
+    }
+
+    /**
+     * Closes the circuit and resets the failure count, e.g. after a new session has been joined.
+     */
+    public synchronized void reset() {
+        consecutiveFailures = 0;
+        transitionTo(State.CLOSED);
+    }
+
+    private void transitionTo(State newState) {
+        if (state != newState) {
+            logger.debug("Circuit for speaker " + busHandler.getHostName() + " changed from " + state + " to "
+                    + newState);
+            state = newState;
+        }
+    }
+
+}
@@ -0,0 +1,152 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.bus;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.alljoyn.bus.BusAttachment;
+import org.alljoyn.bus.SessionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.kaizencode.tchaikovsky.concurrent.AsyncCalls;
+
+/**
+ * A session joined during discovery to retrieve the about data of a speaker, which can be handed over to the
+ * {@link SpeakerBusHandler} of the speaker instead of being left. This saves joining a new session when connecting to
+ * the speaker. If the session is not adopted within the idle timeout, it is left.
+ * 
+ * The session has to be joined with this instance as {@link SessionListener}, which forwards session events to the
+ * listener of the adopting {@link SpeakerBusHandler}.
+ * 
+ * @author Dominic Lerbs
+ */
+public class DiscoverySession extends SessionListener {
+
+    private final Logger logger = LoggerFactory.getLogger(DiscoverySession.class);
+
+    private enum State {
+        PARKED, ADOPTED, CLOSED
+    }
+
+    private final BusAttachment busAttachment;
+    private final String hostName;
+    private final short port;
+    private volatile int sessionId;
+    private volatile SessionListener delegate;
+    private final AtomicReference<State> state = new AtomicReference<>(State.PARKED);
+    private volatile ScheduledFuture<?> idleTimeout;
+
+    /**
+     * @param busAttachment
+     *            The {@link BusAttachment} the session is joined on
+     * @param hostName
+     *            Bus name or well-known name of the speaker
+     * @param port
+     *            Port of the session
+     */
+    public DiscoverySession(BusAttachment busAttachment, String hostName, short port) {
+        this.busAttachment = busAttachment;
+        this.hostName = hostName;
+        this.port = port;
+    }
+
+    /**
+     * @param sessionId
+     *            ID of the joined session
+     */
+    public void setSessionId(int sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public int getSessionId() {
+        return sessionId;
+    }
+
+    public String getHostName() {
+        return hostName;
+    }
+
+    public short getPort() {
+        return port;
+    }
+
+    /**
+     * Keeps the session open until it is adopted or the idle timeout has passed.
+     * 
+     * @param idleTimeoutInMs
+     *            Time in milliseconds after which the session is left if it has not been adopted
+     */
+    void park(long idleTimeoutInMs) {
+        idleTimeout = AsyncCalls.getTimeoutScheduler().schedule(() -> {
+            if (state.get() == State.PARKED) {
+                logger.debug("Discovery session " + sessionId + " on host " + hostName + " not used, leaving");
+                close();
+            }
+        }, idleTimeoutInMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Takes over the session.
+     * 
+     * @param listener
+     *            The {@link SessionListener} to forward session events to
+     * @return True if the session has been adopted, false if it has already been closed or lost
+     */
+    boolean adopt(SessionListener listener) {
+        delegate = listener;
+        if (!state.compareAndSet(State.PARKED, State.ADOPTED)) {
+            delegate = null;
+            return false;
+        }
+        cancelIdleTimeout();
+        return true;
+    }
+
+    /**
+     * Leaves the session unless it has been adopted.
+     */
+    public void close() {
+        if (state.compareAndSet(State.PARKED, State.CLOSED)) {
+            cancelIdleTimeout();
+            busAttachment.leaveSession(sessionId);
+        }
+    }
+
+    @Override
+    public void sessionLost(int sessionId, int reason) {
+        if (!state.compareAndSet(State.PARKED, State.CLOSED)) {
+            SessionListener listener = delegate;
+            if (listener != null) {
+                listener.sessionLost(sessionId, reason);
+            }
+        } else {
+            logger.debug("Discovery session " + sessionId + " on host " + hostName + " lost before it was used");
+            cancelIdleTimeout();
+        }
+    }
+
+    private void cancelIdleTimeout() {
+        ScheduledFuture<?> timeout = idleTimeout;
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+    }
+
+}
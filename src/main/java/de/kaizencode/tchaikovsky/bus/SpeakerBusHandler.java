@@ -16,11 +16,14 @@
  */
 package de.kaizencode.tchaikovsky.bus;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
 
 import org.alljoyn.bus.BusAttachment;
 import org.alljoyn.bus.Mutable;
+import org.alljoyn.bus.OnJoinSessionListener;
 import org.alljoyn.bus.ProxyBusObject;
 import org.alljoyn.bus.SessionOpts;
 import org.alljoyn.bus.Status;
@@ -33,10 +36,12 @@ import de.kaizencode.tchaikovsky.businterface.MediaPlayerInterface;
 import de.kaizencode.tchaikovsky.businterface.VolumeInterface;
 import de.kaizencode.tchaikovsky.businterface.ZoneManagerInterface;
 import de.kaizencode.tchaikovsky.bussignal.MediaPlayerSignalHandler;
+import de.kaizencode.tchaikovsky.bussignal.SpeakerEventDispatcher.ListenerCall;
 import de.kaizencode.tchaikovsky.exception.ConnectionException;
 import de.kaizencode.tchaikovsky.listener.SpeakerChangedListener;
 import de.kaizencode.tchaikovsky.listener.SpeakerConnectionListener;
 import de.kaizencode.tchaikovsky.speaker.Speaker;
+import de.kaizencode.tchaikovsky.speaker.remote.RemotePlaylist;
 
 /**
  * Handler for bus communication of a {@link Speaker}.
@@ -51,12 +56,15 @@ public class SpeakerBusHandler implements SpeakerConnectionListener {
 
     private final MediaPlayerSignalHandler signalHandler;
     private final BusAttachment busAttachment;
-    private final String hostName;
-    private final short port;
-    private Mutable.IntegerValue sessionId;
+    private volatile String hostName;
+    private volatile short port;
+    private volatile Mutable.IntegerValue sessionId;
     private SpeakerSessionListener sessionListener;
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(this);
+    private DiscoverySession offeredSession;
+    private volatile Supplier<RemotePlaylist> cachedPlaylist = () -> null;
 
-    private final List<SpeakerChangedListener> speakerChangedListeners = new ArrayList<>();
+    private final List<SpeakerChangedListener> speakerChangedListeners = new CopyOnWriteArrayList<>();
 
     /**
      * Creates a new {@link SpeakerBusHandler}.
@@ -88,14 +96,150 @@ public class SpeakerBusHandler implements SpeakerConnectionListener {
      *             Exception if connection could not be established
      */
     public ProxyBusObject connect() throws ConnectionException {
-        joinSession(hostName);
-        return getProxyBusObject();
+        if (!adoptOfferedSession()) {
+            joinSession(hostName);
+        }
+        return createProxyBusObject();
+    }
+
+    /**
+     * Offers a session joined during discovery, to be used by the next {@link #connect()} instead of joining a new
+     * session. The session is left if it is not used within the idle timeout.
+     * 
+     * @param session
+     *            The {@link DiscoverySession} to the speaker
+     * @param idleTimeoutInMs
+     *            Time in milliseconds after which the session is left if it has not been used
+     */
+    public synchronized void offerSession(DiscoverySession session, long idleTimeoutInMs) {
+        if (!session.getHostName().equals(hostName) || session.getPort() != port) {
+            session.close();
+            return;
+        }
+        if (offeredSession != null) {
+            offeredSession.close();
+        }
+        offeredSession = session;
+        session.park(idleTimeoutInMs);
+    }
+
+    private boolean adoptOfferedSession() {
+        DiscoverySession session;
+        synchronized (this) {
+            session = offeredSession;
+            offeredSession = null;
+        }
+        if (session == null || !session.getHostName().equals(hostName) || !session.adopt(sessionListener)) {
+            return false;
+        }
+        sessionId = new Mutable.IntegerValue(session.getSessionId());
+        logger.debug("Reusing discovery session " + session.getSessionId() + " on host " + hostName);
+        onSessionJoined(hostName);
+        return true;
+    }
+
+    /**
+     * Establishes a connection with the given {@link Speaker} without blocking, using the asynchronous join of
+     * AllJoyn. The returned future is completed on the AllJoyn callback thread, so dependent stages must not perform
+     * blocking bus calls on the completing thread.
+     * 
+     * @return Future completing with the {@link ProxyBusObject} for further communication, or with a
+     *         {@link ConnectionException} if the connection could not be established
+     */
+    public CompletableFuture<ProxyBusObject> connectAsync() {
+        CompletableFuture<ProxyBusObject> result = new CompletableFuture<>();
+        if (adoptOfferedSession()) {
+            result.complete(createProxyBusObject());
+            return result;
+        }
+        String sessionHost = hostName;
+        logger.debug("Joining session asynchronously with host [" + sessionHost + "], port [" + port + "]");
+
+        Status status = busAttachment.joinSession(sessionHost, port, createSessionOptions(), sessionListener,
+                new OnJoinSessionListener() {
+                    @Override
+                    public void onJoinSession(Status status, int joinedSessionId, SessionOpts opts, Object context) {
+                        if (status != Status.OK) {
+                            result.completeExceptionally(
+                                    new ConnectionException("Unable to join session on host " + sessionHost, status));
+                            return;
+                        }
+                        sessionId = new Mutable.IntegerValue(joinedSessionId);
+                        onSessionJoined(sessionHost);
+                        result.complete(createProxyBusObject());
+                    }
+                }, null);
+        if (status != Status.OK) {
+            result.completeExceptionally(
+                    new ConnectionException("Unable to join session on host " + sessionHost, status));
+        }
+        return result;
+    }
+
+    /**
+     * Updates the bus name and port of the speaker, e.g. if the speaker has been announced again with a different bus
+     * name. Changes take effect with the next {@link #connect()}.
+     * 
+     * @param hostName
+     *            Bus name or well-known name of the {@link Speaker}
+     * @param port
+     *            Port where the {@link Speaker} is listening.
+     */
+    public void updateHost(String hostName, short port) {
+        if (!hostName.equals(this.hostName) || port != this.port) {
+            logger.debug("Speaker host changed from " + this.hostName + ":" + this.port + " to " + hostName + ":"
+                    + port);
+            this.hostName = hostName;
+            this.port = port;
+            sessionListener.setHostName(hostName);
+        }
+    }
+
+    public String getHostName() {
+        return hostName;
+    }
+
+    public short getPort() {
+        return port;
     }
 
     public int getSessionId() {
         return this.sessionId.value;
     }
 
+    /**
+     * @return The {@link CircuitBreaker} of the speaker
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Notifies the {@link SpeakerChangedListener}s of the speaker through the event dispatcher of the signal handler,
+     * in order with the signals received from the speaker.
+     * 
+     * @param call
+     *            The notification of a single listener
+     */
+    public void dispatchSpeakerChanged(ListenerCall call) {
+        signalHandler.getEventDispatcher().dispatch(this, call);
+    }
+
+    /**
+     * @param cachedPlaylist
+     *            Supplier of the locally cached playlist of the speaker, returning null if none is cached
+     */
+    public void setCachedPlaylist(Supplier<RemotePlaylist> cachedPlaylist) {
+        this.cachedPlaylist = cachedPlaylist;
+    }
+
+    /**
+     * @return The locally cached playlist of the speaker, or null if none is cached
+     */
+    public RemotePlaylist getCachedPlaylist() {
+        return cachedPlaylist.get();
+    }
+
     public List<SpeakerChangedListener> getSpeakerChangedListeners() {
         return speakerChangedListeners;
     }
@@ -175,14 +319,20 @@ public class SpeakerBusHandler implements SpeakerConnectionListener {
             throw new ConnectionException("Unable to join session " + sessionId.value + " on host " + sessionHost,
                     status);
         }
+        onSessionJoined(sessionHost);
+    }
+
+    private void onSessionJoined(String sessionHost) {
         logger.debug("Joined session from local bus [" + busAttachment.getUniqueName() + "] to remote host ["
                 + sessionHost + "] on sessionId [" + sessionId.value + "]");
         signalHandler.addSpeakerBusHandler(this);
+        circuitBreaker.reset();
     }
 
     @Override
     public void onConnectionLost(String hostName, int alljoynReasonCode) {
         signalHandler.removeSpeakerBusHandler(this);
+        circuitBreaker.open("session lost with reason " + alljoynReasonCode);
     }
 
     /**
@@ -193,7 +343,12 @@ public class SpeakerBusHandler implements SpeakerConnectionListener {
         busAttachment.setLinkTimeout(sessionId.value, new Mutable.IntegerValue(timeoutInSec));
     }
 
-    private ProxyBusObject getProxyBusObject() {
+    /**
+     * Creates an additional {@link ProxyBusObject} for the current session, e.g. to use a different reply timeout.
+     * 
+     * @return {@link ProxyBusObject} for further communication though AllPlay interfaces
+     */
+    public ProxyBusObject createProxyBusObject() {
         ProxyBusObject proxyBusObject = busAttachment.getProxyBusObject(hostName, OBJECT_PATH, sessionId.value,
                 new Class<?>[] { MediaPlayerInterface.class, VolumeInterface.class, ZoneManagerInterface.class,
                         MCUInterface.class, InputSelectorInterface.class });
@@ -16,8 +16,7 @@
  */
 package de.kaizencode.tchaikovsky.bus;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.alljoyn.bus.SessionListener;
 import org.slf4j.Logger;
@@ -33,16 +32,20 @@ import de.kaizencode.tchaikovsky.listener.SpeakerConnectionListener;
 public class SpeakerSessionListener extends SessionListener {
 
     private final Logger logger = LoggerFactory.getLogger(SpeakerSessionListener.class);
-    private final List<SpeakerConnectionListener> listeners = new ArrayList<>();
+    private final CopyOnWriteArrayList<SpeakerConnectionListener> listeners = new CopyOnWriteArrayList<>();
 
-    private String hostName;
+    private volatile String hostName;
 
     public SpeakerSessionListener(String hostName) {
         this.hostName = hostName;
     }
 
+    public void setHostName(String hostName) {
+        this.hostName = hostName;
+    }
+
     public void addConnectionListener(SpeakerConnectionListener listener) {
-        listeners.add(listener);
+        listeners.addIfAbsent(listener);
     }
 
     public void removeConnectionListener(SpeakerConnectionListener listener) {
@@ -16,45 +16,102 @@
  */
 package de.kaizencode.tchaikovsky.businterface;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
 import org.alljoyn.bus.BusException;
 import org.alljoyn.bus.Variant;
+import org.alljoyn.bus.VariantTypeReference;
 
 import de.kaizencode.tchaikovsky.exception.SpeakerException;
 
 /**
- * Converter for AllJoyn {@link Variant}s to Java objects.
+ * Converter for AllJoyn {@link Variant}s to Java objects. All basic D-Bus types are supported, as well as arrays of
+ * basic types, variants and the dictionaries <code>a{sv}</code> and <code>a{ss}</code>. Unsigned types are returned
+ * as the signed Java type of the same size, as done by AllJoyn.
  * 
  * @author Dominic Lerbs
  */
 public class VariantConverter {
 
-    private static final String SIGNATURE_STRING = "s";
-    private static final String SIGNATURE_INTEGER = "i";
-    private static final String SIGNATURE_LONG = "x";
+    private static final VariantTypeReference<Map<String, Variant>> VARIANT_MAP_TYPE =
+            new VariantTypeReference<Map<String, Variant>>() {
+            };
+    private static final VariantTypeReference<Map<String, String>> STRING_MAP_TYPE =
+            new VariantTypeReference<Map<String, String>>() {
+            };
 
     /**
      * Converts a single {@link Variant} to a Java object.
      * 
      * @param variant
      *            The {@link Variant} to be converted
-     * @return The converted Java object
+     * @return The converted Java object, or null if the {@link Variant} is null
      * @throws SpeakerException
      *             if an error occurred while converting the {@link Variant} to an object
      */
     public static Object convert(Variant variant) throws SpeakerException {
+        if (variant == null) {
+            return null;
+        }
         try {
-            if (SIGNATURE_STRING.equals(variant.getSignature())) {
+            String signature = variant.getSignature();
+            switch (signature) {
+            case "s":
+            case "o":
+            case "g":
                 return variant.getObject(String.class);
-            } else if (SIGNATURE_INTEGER.equals(variant.getSignature())) {
+            case "i":
+            case "u":
+            case "h":
                 return variant.getObject(Integer.class);
-            } else if (SIGNATURE_LONG.equals(variant.getSignature())) {
+            case "x":
+            case "t":
                 return variant.getObject(Long.class);
-            } else {
-                throw new SpeakerException("Unsupported Variant signature " + variant.getSignature());
+            case "y":
+                return variant.getObject(Byte.class);
+            case "b":
+                return variant.getObject(Boolean.class);
+            case "n":
+            case "q":
+                return variant.getObject(Short.class);
+            case "d":
+                return variant.getObject(Double.class);
+            case "v":
+                return convert(variant.getObject(Variant.class));
+            case "a{sv}":
+                return convertToMap(variant.getObject(VARIANT_MAP_TYPE));
+            case "a{ss}":
+                return variant.getObject(STRING_MAP_TYPE);
+            case "as":
+            case "ao":
+            case "ag":
+                return variant.getObject(String[].class);
+            case "ai":
+            case "au":
+            case "ah":
+                return variant.getObject(int[].class);
+            case "ax":
+            case "at":
+                return variant.getObject(long[].class);
+            case "ay":
+                return variant.getObject(byte[].class);
+            case "ab":
+                return variant.getObject(boolean[].class);
+            case "an":
+            case "aq":
+                return variant.getObject(short[].class);
+            case "ad":
+                return variant.getObject(double[].class);
+            case "av":
+                return convertToList(variant.getObject(Variant[].class));
+            default:
+                throw new SpeakerException("Unsupported Variant signature " + signature);
             }
         } catch (BusException e) {
             throw new SpeakerException("Error while trying to resolve Variant " + e.getMessage(), e);
@@ -77,4 +134,64 @@ public class VariantConverter {
         }
         return map;
     }
+
+    /**
+     * Compares two converted objects by their content. Unlike {@link Object#equals(Object)}, arrays are compared by
+     * their elements, also if they are contained in converted maps and lists.
+     * 
+     * @param value
+     *            An object returned by {@link #convert(Variant)} or {@link #convertToMap(Map)}, may be null
+     * @param other
+     *            The object to compare with, may be null
+     * @return True if both objects have the same content
+     */
+    public static boolean valuesEqual(Object value, Object other) {
+        if (value == other) {
+            return true;
+        }
+        if (value == null || other == null) {
+            return false;
+        }
+        if (value instanceof Map && other instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            Map<?, ?> otherMap = (Map<?, ?>) other;
+            if (map.size() != otherMap.size()) {
+                return false;
+            }
+            for (Entry<?, ?> entry : map.entrySet()) {
+                Object key = entry.getKey();
+                if (!otherMap.containsKey(key) || !valuesEqual(entry.getValue(), otherMap.get(key))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (value instanceof List && other instanceof List) {
+            List<?> list = (List<?>) value;
+            List<?> otherList = (List<?>) other;
+            if (list.size() != otherList.size()) {
+                return false;
+            }
+            Iterator<?> iterator = list.iterator();
+            Iterator<?> otherIterator = otherList.iterator();
+            while (iterator.hasNext()) {
+                if (!valuesEqual(iterator.next(), otherIterator.next())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (value.getClass().isArray() && other.getClass().isArray()) {
+            return Arrays.deepEquals(new Object[] { value }, new Object[] { other });
+        }
+        return value.equals(other);
+    }
+
+    private static List<Object> convertToList(Variant[] variants) throws SpeakerException {
+        List<Object> list = new ArrayList<>(variants.length);
+        for (Variant variant : variants) {
+            list.add(convert(variant));
+        }
+        return list;
+    }
 }
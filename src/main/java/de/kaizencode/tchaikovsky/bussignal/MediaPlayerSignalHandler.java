@@ -16,13 +16,11 @@
  */
 package de.kaizencode.tchaikovsky.bussignal;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.alljoyn.bus.BusAttachment;
 import org.alljoyn.bus.annotation.BusSignalHandler;
@@ -31,11 +29,15 @@ import org.slf4j.LoggerFactory;
 
 import de.kaizencode.tchaikovsky.AllPlay;
 import de.kaizencode.tchaikovsky.bus.SpeakerBusHandler;
+import de.kaizencode.tchaikovsky.bussignal.SpeakerEventDispatcher.ListenerCall;
 import de.kaizencode.tchaikovsky.exception.SpeakerException;
 import de.kaizencode.tchaikovsky.listener.SpeakerChangedListener;
 import de.kaizencode.tchaikovsky.speaker.Speaker.LoopMode;
 import de.kaizencode.tchaikovsky.speaker.Speaker.ShuffleMode;
+import de.kaizencode.tchaikovsky.speaker.remote.PlaylistItemPool;
 import de.kaizencode.tchaikovsky.speaker.remote.RemotePlayState;
+import de.kaizencode.tchaikovsky.speaker.remote.RemotePlaylist;
+import de.kaizencode.tchaikovsky.speaker.remote.RemotePlaylistItem;
 
 /**
  * Signal handler for AllPlay interfaces.
@@ -46,24 +48,86 @@ public class MediaPlayerSignalHandler {
 
     private final Logger logger = LoggerFactory.getLogger(MediaPlayerSignalHandler.class);
 
-    private final Set<SpeakerBusHandler> busHandlers = new HashSet<>();
+    private final ConcurrentMap<Integer, SpeakerBusHandler> busHandlers = new ConcurrentHashMap<>();
     private static final String MEDIA_PLAYER_INTERFACE = "de.kaizencode.tchaikovsky.businterface.MediaPlayerInterface";
     private static final String VOLUME_INTERFACE = "de.kaizencode.tchaikovsky.businterface.VolumeInterface";
     private static final String ZONEMANAGER_INTERFACE = "de.kaizencode.tchaikovsky.businterface.ZoneManagerInterface";
     private static final String INPUT_SELECTOR_INTERFACE = "de.kaizencode.tchaikovsky.businterface.InputSelectorInterface";
 
     private final BusAttachment busAttachment;
+    private final SpeakerEventDispatcher eventDispatcher;
+    private final PlaylistItemPool itemPool;
+    private volatile boolean compactPlayState = false;
 
     public MediaPlayerSignalHandler(BusAttachment busAttachment) {
+        this(busAttachment, new SpeakerEventDispatcher());
+    }
+
+    /**
+     * @param busAttachment
+     *            The {@link BusAttachment} the signal handler is registered on
+     * @param eventDispatcher
+     *            The {@link SpeakerEventDispatcher} used to deliver events to the {@link SpeakerChangedListener}s
+     */
+    public MediaPlayerSignalHandler(BusAttachment busAttachment, SpeakerEventDispatcher eventDispatcher) {
+        this(busAttachment, eventDispatcher, new PlaylistItemPool());
+    }
+
+    /**
+     * @param busAttachment
+     *            The {@link BusAttachment} the signal handler is registered on
+     * @param eventDispatcher
+     *            The {@link SpeakerEventDispatcher} used to deliver events to the {@link SpeakerChangedListener}s
+     * @param itemPool
+     *            The {@link PlaylistItemPool} deduplicating the items of received play states
+     */
+    public MediaPlayerSignalHandler(BusAttachment busAttachment, SpeakerEventDispatcher eventDispatcher,
+            PlaylistItemPool itemPool) {
         this.busAttachment = busAttachment;
+        this.eventDispatcher = eventDispatcher;
+        this.itemPool = itemPool;
     }
 
+    public SpeakerEventDispatcher getEventDispatcher() {
+        return eventDispatcher;
+    }
+
+    /**
+     * Enables or disables the compact play state mode. If enabled, the items embedded in a PlayStateChanged signal are
+     * compared with the cached playlist of the speaker. If they are equal, the {@link RemotePlayState} passed to the
+     * listeners refers to the items of the cached playlist, so that the items of the signal can be discarded
+     * immediately instead of being retained by listeners.
+     * 
+     * @param enabled
+     *            True to enable the compact play state mode
+     */
+    public void setCompactPlayState(boolean enabled) {
+        compactPlayState = enabled;
+    }
+
+    /**
+     * Routes all signals received on the current session of the given handler to its listeners.
+     * 
+     * @param handler
+     *            The {@link SpeakerBusHandler} which has joined a session
+     */
     public void addSpeakerBusHandler(SpeakerBusHandler handler) {
-        busHandlers.add(handler);
+        addSpeakerBusHandler(handler.getSessionId(), handler);
+    }
+
+    void addSpeakerBusHandler(int sessionId, SpeakerBusHandler handler) {
+        busHandlers.put(sessionId, handler);
     }
 
+    /**
+     * Stops routing signals of the current session of the given handler. Events already received are still delivered.
+     * 
+     * @param handler
+     *            The {@link SpeakerBusHandler} which has left its session
+     */
     public void removeSpeakerBusHandler(SpeakerBusHandler handler) {
-        busHandlers.remove(handler);
+        busHandlers.remove(handler.getSessionId(), handler);
+        eventDispatcher.drainPending(handler);
     }
 
     @BusSignalHandler(iface = MEDIA_PLAYER_INTERFACE, signal = "onLoopModeChanged")
@@ -71,9 +135,7 @@ public class MediaPlayerSignalHandler {
         logSignalReceived("LoopModeChanged");
         try {
             LoopMode mode = LoopMode.parse(loopMode);
-            for (SpeakerChangedListener listener : findListeners()) {
-                listener.onLoopModeChanged(mode);
-            }
+            dispatch(listener -> listener.onLoopModeChanged(mode));
         } catch (SpeakerException e) {
             logger.error("Unknown loopMode " + loopMode + ", cannot inform listeners");
         }
@@ -82,17 +144,20 @@ public class MediaPlayerSignalHandler {
     @BusSignalHandler(iface = MEDIA_PLAYER_INTERFACE, signal = "onPlaylistChanged")
     public void onPlaylistChanged() {
         logSignalReceived("PlaylistChanged");
-        for (SpeakerChangedListener listener : findListeners()) {
-            listener.onPlaylistChanged();
-        }
+        dispatch(listener -> listener.onPlaylistChanged());
     }
 
     @BusSignalHandler(iface = MEDIA_PLAYER_INTERFACE, signal = "onPlayStateChanged")
     public void onPlayStateChanged(RemotePlayState playState) {
         logSignalReceived("PlayStateChanged");
-        for (SpeakerChangedListener listener : findListeners()) {
-            listener.onPlayStateChanged(playState);
+        SpeakerBusHandler handler = getBusHandler();
+        if (handler == null) {
+            return;
+        }
+        if (!compactPlayState || !useCachedPlaylist(handler, playState)) {
+            itemPool.intern(playState);
         }
+        eventDispatcher.dispatch(handler, listener -> listener.onPlayStateChanged(playState));
     }
 
     @BusSignalHandler(iface = MEDIA_PLAYER_INTERFACE, signal = "onShuffleModeChanged")
@@ -100,9 +165,7 @@ public class MediaPlayerSignalHandler {
         logSignalReceived("ShuffleModeChanged");
         try {
             ShuffleMode mode = ShuffleMode.parse(shuffleMode);
-            for (SpeakerChangedListener listener : findListeners()) {
-                listener.onShuffleModeChanged(mode);
-            }
+            dispatch(listener -> listener.onShuffleModeChanged(mode));
         } catch (SpeakerException e) {
             logger.error("Unknown shuffleMode " + shuffleMode + ", cannot inform listeners");
         }
@@ -117,51 +180,74 @@ public class MediaPlayerSignalHandler {
     @BusSignalHandler(iface = VOLUME_INTERFACE, signal = "onVolumeChanged")
     public void onVolumeChanged(short volume) {
         logSignalReceived("VolumeChanged");
-        for (SpeakerChangedListener listener : findListeners()) {
-            listener.onVolumeChanged(volume);
-        }
+        dispatch(listener -> listener.onVolumeChanged(volume));
     }
 
     @BusSignalHandler(iface = VOLUME_INTERFACE, signal = "onMuteChanged")
     public void onMuteChanged(boolean mute) {
         logSignalReceived("MuteChanged");
-        for (SpeakerChangedListener listener : findListeners()) {
-            listener.onMuteChanged(mute);
-        }
+        dispatch(listener -> listener.onMuteChanged(mute));
     }
 
     @BusSignalHandler(iface = VOLUME_INTERFACE, signal = "onEnabledChanged")
     public void onVolumeControlChanged(boolean enabled) {
         logSignalReceived("Volume control changed, enabled = " + enabled);
-        for (SpeakerChangedListener listener : findListeners()) {
-            listener.onVolumeControlChanged(enabled);
-        }
+        dispatch(listener -> listener.onVolumeControlChanged(enabled));
     }
 
     @BusSignalHandler(iface = ZONEMANAGER_INTERFACE, signal = "onZoneChanged")
     public void onZoneChanged(String zoneId, int timestamp, Map<String, Integer> slaves) {
         logSignalReceived("Zone changed");
-        for (SpeakerChangedListener listener : findListeners()) {
-            listener.onZoneChanged(zoneId, timestamp, getSlaveMapWithoutPrefix(slaves));
-        }
+        Map<String, Integer> slavesWithoutPrefix = getSlaveMapWithoutPrefix(slaves);
+        dispatch(listener -> listener.onZoneChanged(zoneId, timestamp, slavesWithoutPrefix));
     }
 
     @BusSignalHandler(iface = INPUT_SELECTOR_INTERFACE, signal = "onInputChanged")
     public void onInputChanged(String input) {
         logSignalReceived("Input changed");
-        for (SpeakerChangedListener listener : findListeners()) {
-            listener.onInputChanged(input);
+        dispatch(listener -> listener.onInputChanged(input));
+    }
+
+    private void dispatch(ListenerCall call) {
+        dispatch(busAttachment.getMessageContext().sessionId, call);
+    }
+
+    void dispatch(int sessionId, ListenerCall call) {
+        SpeakerBusHandler handler = busHandlers.get(sessionId);
+        if (handler != null) {
+            eventDispatcher.dispatch(handler, call);
         }
     }
 
-    private List<SpeakerChangedListener> findListeners() {
-        int sessionId = busAttachment.getMessageContext().sessionId;
-        for (SpeakerBusHandler handler : busHandlers) {
-            if (handler.getSessionId() == sessionId) {
-                return handler.getSpeakerChangedListeners();
+    private SpeakerBusHandler getBusHandler() {
+        return busHandlers.get(busAttachment.getMessageContext().sessionId);
+    }
+
+    /**
+     * Replaces the items of the play state by the items of the cached playlist, if both are equal. If the items cannot
+     * be compared, the play state keeps the items of the signal.
+     * 
+     * @return True if the items have been replaced
+     */
+    private boolean useCachedPlaylist(SpeakerBusHandler handler, RemotePlayState playState) {
+        try {
+            RemotePlaylist cachedPlaylist = handler.getCachedPlaylist();
+            if (cachedPlaylist == null || playState.playlistItems == null || cachedPlaylist.playlistItems == null
+                    || playState.playlistItems.length != cachedPlaylist.playlistItems.length) {
+                return false;
+            }
+            for (int i = 0; i < playState.playlistItems.length; i++) {
+                RemotePlaylistItem item = playState.playlistItems[i];
+                if (item == null || !item.hasSameContent(cachedPlaylist.playlistItems[i])) {
+                    return false;
+                }
             }
+            playState.playlistItems = cachedPlaylist.playlistItems;
+            return true;
+        } catch (SpeakerException | RuntimeException e) {
+            logger.debug("Unable to compare play state with cached playlist, using items of the signal", e);
+            return false;
         }
-        return new ArrayList<>();
     }
 
     private void logSignalReceived(String signalName) {
@@ -0,0 +1,287 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.bussignal;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.kaizencode.tchaikovsky.bus.SpeakerBusHandler;
+import de.kaizencode.tchaikovsky.listener.SpeakerChangedListener;
+
+/**
+ * Dispatches speaker events to {@link SpeakerChangedListener}s. Without an {@link Executor}, listeners are called
+ * directly on the AllJoyn signal thread. With an {@link Executor}, each event is added to a FIFO queue of its speaker
+ * and the listeners are called on the executor, so that a slow listener does not block signal delivery. Events of
+ * the same speaker are always delivered in the order they have been received, while events of different speakers are
+ * delivered in parallel.
+ * 
+ * @author Dominic Lerbs
+ */
+public class SpeakerEventDispatcher {
+
+    private final Logger logger = LoggerFactory.getLogger(SpeakerEventDispatcher.class);
+
+    /**
+     * A single call of a {@link SpeakerChangedListener} method.
+     */
+    public interface ListenerCall {
+        void call(SpeakerChangedListener listener);
+    }
+
+    private final Executor executor;
+    private final ConcurrentMap<SpeakerBusHandler, EventQueue> queues = new ConcurrentHashMap<>();
+    // Weak keys, so that the statistics do not keep listeners alive which have been removed from all speakers
+    private final Map<SpeakerChangedListener, ListenerTiming> timings = Collections
+            .synchronizedMap(new WeakHashMap<SpeakerChangedListener, ListenerTiming>());
+
+    /**
+     * Creates a dispatcher calling all listeners directly on the signal thread.
+     */
+    public SpeakerEventDispatcher() {
+        this(null);
+    }
+
+    /**
+     * @param executor
+     *            The {@link Executor} to call the listeners on, or null to call them directly on the signal thread
+     */
+    public SpeakerEventDispatcher(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Dispatches an event to all {@link SpeakerChangedListener}s of the given speaker.
+     * 
+     * @param handler
+     *            The {@link SpeakerBusHandler} of the speaker the event belongs to
+     * @param call
+     *            The listener method to be called
+     */
+    public void dispatch(SpeakerBusHandler handler, ListenerCall call) {
+        if (executor == null) {
+            callListeners(handler.getSpeakerChangedListeners(), call);
+            return;
+        }
+        EventQueue queue = queues.get(handler);
+        if (queue == null) {
+            EventQueue newQueue = new EventQueue(handler);
+            queue = queues.putIfAbsent(handler, newQueue);
+            if (queue == null) {
+                queue = newQueue;
+            }
+        }
+        queue.add(call);
+    }
+
+    /**
+     * Makes sure that all pending events of the given speaker are delivered, so that listeners see the last state
+     * before the speaker has left its session. Events of a new session of the speaker are delivered after them, in
+     * order.
+     * 
+     * @param handler
+     *            The {@link SpeakerBusHandler} of the speaker
+     */
+    public void drainPending(SpeakerBusHandler handler) {
+        EventQueue queue = queues.get(handler);
+        if (queue != null && queue.size() > 0) {
+            queue.schedule();
+        }
+    }
+
+    /**
+     * @return True if listeners are called asynchronously on an executor
+     */
+    public boolean isAsynchronous() {
+        return executor != null;
+    }
+
+    /**
+     * @param handler
+     *            The {@link SpeakerBusHandler} of the speaker
+     * @return Number of events of the speaker waiting to be delivered
+     */
+    public int getQueueDepth(SpeakerBusHandler handler) {
+        EventQueue queue = queues.get(handler);
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * @return Number of events of all speakers waiting to be delivered
+     */
+    public int getTotalQueueDepth() {
+        int depth = 0;
+        for (EventQueue queue : queues.values()) {
+            depth += queue.size();
+        }
+        return depth;
+    }
+
+    /**
+     * @return Execution time statistics per listener which is still referenced
+     */
+    public Map<SpeakerChangedListener, ListenerTiming> getListenerTimings() {
+        synchronized (timings) {
+            return Collections.unmodifiableMap(new HashMap<>(timings));
+        }
+    }
+
+    private void callListeners(List<SpeakerChangedListener> listeners, ListenerCall call) {
+        for (SpeakerChangedListener listener : listeners) {
+            long start = System.nanoTime();
+            try {
+                call.call(listener);
+            } catch (RuntimeException e) {
+                logger.error("SpeakerChangedListener " + listener + " failed to process event", e);
+            } finally {
+                getTiming(listener).record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private ListenerTiming getTiming(SpeakerChangedListener listener) {
+        synchronized (timings) {
+            ListenerTiming timing = timings.get(listener);
+            if (timing == null) {
+                timing = new ListenerTiming();
+                timings.put(listener, timing);
+            }
+            return timing;
+        }
+    }
+
+    /**
+     * FIFO queue of events for a single speaker. At most one drain task per queue is running on the executor at any
+     * time, which guarantees the ordering of events.
+     */
+    private class EventQueue implements Runnable {
+
+        private final SpeakerBusHandler handler;
+        private final Queue<ListenerCall> events = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        EventQueue(SpeakerBusHandler handler) {
+            this.handler = handler;
+        }
+
+        void add(ListenerCall call) {
+            events.add(call);
+            size.incrementAndGet();
+            schedule();
+        }
+
+        int size() {
+            return size.get();
+        }
+
+        void clear() {
+            while (events.poll() != null) {
+                size.decrementAndGet();
+            }
+        }
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    logger.warn("Event executor rejected events of " + handler.getHostName() + ", discarding "
+                            + size() + " events");
+                    clear();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            ListenerCall call;
+            while ((call = events.poll()) != null) {
+                size.decrementAndGet();
+                callListeners(handler.getSpeakerChangedListeners(), call);
+            }
+            scheduled.set(false);
+            // An event might have been added after the queue has been drained but before the flag was reset
+            if (!events.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    /**
+     * Execution time statistics of a single listener.
+     */
+    public static class ListenerTiming {
+
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalTimeInNs = new AtomicLong();
+        private final AtomicLong maxTimeInNs = new AtomicLong();
+
+        void record(long timeInNs) {
+            count.incrementAndGet();
+            totalTimeInNs.addAndGet(timeInNs);
+            long max;
+            do {
+                max = maxTimeInNs.get();
+            } while (timeInNs > max && !maxTimeInNs.compareAndSet(max, timeInNs));
+        }
+
+        /**
+         * @return Number of events processed by the listener
+         */
+        public long getCount() {
+            return count.get();
+        }
+
+        /**
+         * @return Average execution time in microseconds
+         */
+        public long getAverageTimeInMicros() {
+            long c = count.get();
+            return c == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalTimeInNs.get() / c);
+        }
+
+        /**
+         * @return Maximum execution time in microseconds
+         */
+        public long getMaxTimeInMicros() {
+            return TimeUnit.NANOSECONDS.toMicros(maxTimeInNs.get());
+        }
+
+        @Override
+        public String toString() {
+            return getCount() + " events, avg " + getAverageTimeInMicros() + "us, max " + getMaxTimeInMicros() + "us";
+        }
+    }
+
+}
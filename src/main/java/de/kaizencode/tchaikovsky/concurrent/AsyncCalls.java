@@ -0,0 +1,258 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.kaizencode.tchaikovsky.exception.SpeakerException;
+
+/**
+ * Runs blocking {@link SpeakerCall}s asynchronously on an executor. By default, the library-managed executor is used:
+ * On JDKs supporting virtual threads, each call runs on its own virtual thread, else a bounded pool of daemon threads
+ * is used. Note that virtual threads are pinned to their carrier thread while blocked in a native AllJoyn call, so the
+ * number of concurrent calls is limited by the number of carrier threads.
+ * <p>
+ * Each speaker gets its own instance created by {@link #forSpeaker()}, which limits the number of calls the speaker
+ * runs on the shared executor at the same time and the number of calls waiting for them. A call which did not finish
+ * within its deadline is cancelled, but a thread blocked in a native AllJoyn call cannot be interrupted and stays
+ * busy until the call returns or fails with the AllJoyn reply timeout. Such hung calls still count towards the limit of
+ * their speaker, so once a speaker has as many hung calls as it may run, its further calls wait and are finally
+ * rejected, while the calls of other speakers are not affected.
+ * 
+ * @author Dominic Lerbs
+ */
+public final class AsyncCalls {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncCalls.class);
+
+    /** Number of threads used if virtual threads are not available */
+    public static final int DEFAULT_POOL_SIZE = 64;
+    /** Default number of calls a single speaker runs at the same time */
+    public static final int DEFAULT_MAX_CALLS_PER_SPEAKER = 8;
+    /** Default number of calls of a single speaker waiting for a running call to finish */
+    public static final int DEFAULT_MAX_QUEUED_CALLS_PER_SPEAKER = 64;
+
+    private static ExecutorService defaultExecutor;
+    private static AsyncCalls defaultCalls;
+    private static ScheduledExecutorService timeoutScheduler;
+
+    private final Executor executor;
+    private final int maxCallsPerSpeaker;
+    private final int maxQueuedCallsPerSpeaker;
+
+    /**
+     * @param executor
+     *            The {@link Executor} calls are run on
+     * @param maxCallsPerSpeaker
+     *            Maximum number of calls of a single speaker running at the same time, see {@link #forSpeaker()}
+     * @param maxQueuedCallsPerSpeaker
+     *            Maximum number of calls of a single speaker waiting for a running call to finish
+     */
+    public AsyncCalls(Executor executor, int maxCallsPerSpeaker, int maxQueuedCallsPerSpeaker) {
+        if (maxCallsPerSpeaker < 1 || maxQueuedCallsPerSpeaker < 0) {
+            throw new IllegalArgumentException("Call limit has to be positive and queue limit must not be negative");
+        }
+        this.executor = executor;
+        this.maxCallsPerSpeaker = maxCallsPerSpeaker;
+        this.maxQueuedCallsPerSpeaker = maxQueuedCallsPerSpeaker;
+    }
+
+    /**
+     * @return Instance using the library-managed executor and the default limits, for speakers not created by an
+     *         {@link de.kaizencode.tchaikovsky.AllPlay} instance
+     */
+    public static synchronized AsyncCalls getDefault() {
+        if (defaultCalls == null) {
+            defaultCalls = new AsyncCalls(getDefaultExecutor(), DEFAULT_MAX_CALLS_PER_SPEAKER,
+                    DEFAULT_MAX_QUEUED_CALLS_PER_SPEAKER);
+        }
+        return defaultCalls;
+    }
+
+    /**
+     * @return The library-managed {@link ExecutorService}
+     */
+    public static synchronized ExecutorService getDefaultExecutor() {
+        if (defaultExecutor == null) {
+            defaultExecutor = createDefaultExecutor();
+        }
+        return defaultExecutor;
+    }
+
+    /**
+     * @return Instance for a single speaker, running its calls on a {@link BoundedExecutor} share of the executor of
+     *         this instance
+     */
+    public AsyncCalls forSpeaker() {
+        return new AsyncCalls(new BoundedExecutor(executor, maxCallsPerSpeaker, maxQueuedCallsPerSpeaker),
+                maxCallsPerSpeaker, maxQueuedCallsPerSpeaker);
+    }
+
+    /**
+     * @return The {@link Executor} calls are run on
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Runs the given call asynchronously. If the deadline passes or the returned future is cancelled, a call which
+     * has not been started yet is skipped and a running call is interrupted. Calls blocked in native AllJoyn code do
+     * not react to the interrupt and keep their thread until they return.
+     * 
+     * @param call
+     *            The {@link SpeakerCall} to run
+     * @param timeoutInMs
+     *            Deadline in milliseconds after which the returned future completes with a {@link TimeoutException},
+     *            or 0 for no deadline
+     * @return A {@link CompletableFuture} completing with the result of the call, or with a {@link SpeakerException}
+     *         if the call has been rejected
+     */
+    public <T> CompletableFuture<T> run(SpeakerCall<T> call, long timeoutInMs) {
+        return run(call, timeoutInMs, executor);
+    }
+
+    /**
+     * Runs a call the current thread is going to wait for, like {@link #run(SpeakerCall, long)}. If the current thread
+     * is itself running a call of this instance, the call is passed to the shared executor directly: It is covered by
+     * the share of the waiting call, and queueing it behind further calls of the speaker could leave all running
+     * calls waiting for calls which cannot start.
+     * 
+     * @param call
+     *            The {@link SpeakerCall} to run
+     * @param timeoutInMs
+     *            Deadline in milliseconds after which the returned future completes with a {@link TimeoutException},
+     *            or 0 for no deadline
+     * @return A {@link CompletableFuture} completing with the result of the call, or with a {@link SpeakerException}
+     *         if the call has been rejected
+     */
+    public <T> CompletableFuture<T> runNested(SpeakerCall<T> call, long timeoutInMs) {
+        if (executor instanceof BoundedExecutor && ((BoundedExecutor) executor).isRunningTask()) {
+            return run(call, timeoutInMs, ((BoundedExecutor) executor).getDelegate());
+        }
+        return run(call, timeoutInMs, executor);
+    }
+
+    private <T> CompletableFuture<T> run(SpeakerCall<T> call, long timeoutInMs, Executor target) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        FutureTask<Void> task = new FutureTask<Void>(() -> {
+            try {
+                result.complete(call.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }, null) {
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    result.completeExceptionally(new SpeakerException("Speaker call has been cancelled"));
+                }
+            }
+        };
+        try {
+            target.execute(task);
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new SpeakerException("Unable to run speaker call, too many calls pending", e));
+            return result;
+        }
+        if (timeoutInMs > 0) {
+            ScheduledFuture<?> timeout = getTimeoutScheduler().schedule(() -> {
+                if (result.completeExceptionally(
+                        new TimeoutException("Speaker call did not complete within " + timeoutInMs + "ms"))) {
+                    task.cancel(true);
+                }
+            }, timeoutInMs, TimeUnit.MILLISECONDS);
+            result.whenComplete((value, error) -> timeout.cancel(false));
+        }
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Applies a deadline to an already running asynchronous operation. The operation itself is not cancelled.
+     * 
+     * @param future
+     *            The future of the operation
+     * @param timeoutInMs
+     *            Deadline in milliseconds after which the returned future completes with a {@link TimeoutException},
+     *            or 0 for no deadline
+     * @return A {@link CompletableFuture} completing with the result of the operation
+     */
+    public static <T> CompletableFuture<T> withTimeout(CompletableFuture<T> future, long timeoutInMs) {
+        if (timeoutInMs <= 0) {
+            return future;
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        ScheduledFuture<?> timeout = getTimeoutScheduler().schedule(() -> result.completeExceptionally(
+                new TimeoutException("Speaker operation did not complete within " + timeoutInMs + "ms")),
+                timeoutInMs, TimeUnit.MILLISECONDS);
+        future.whenComplete((value, error) -> {
+            timeout.cancel(false);
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return Shared scheduler for timeouts and other short, non-blocking tasks
+     */
+    public static synchronized ScheduledExecutorService getTimeoutScheduler() {
+        if (timeoutScheduler == null) {
+            timeoutScheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("tchaikovsky-timer"));
+        }
+        return timeoutScheduler;
+    }
+
+    private static ExecutorService createDefaultExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ExecutorService virtualThreadExecutor = (ExecutorService) factory.invoke(null);
+            logger.debug("Using virtual threads for asynchronous speaker calls");
+            return virtualThreadExecutor;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.debug("Virtual threads not available, using thread pool for asynchronous speaker calls");
+        }
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(DEFAULT_POOL_SIZE, DEFAULT_POOL_SIZE, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new NamedThreadFactory("tchaikovsky-call"));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+}
@@ -0,0 +1,156 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.concurrent;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link Executor} giving a bounded share of a shared executor to a single speaker. At most a fixed number of tasks
+ * run on the shared executor at the same time, further tasks wait in a bounded queue of this executor and are rejected
+ * once the queue is full. A speaker whose calls hang therefore occupies only its own share of the shared executor.
+ * 
+ * @author Dominic Lerbs
+ */
+public class BoundedExecutor implements Executor {
+
+    private final Logger logger = LoggerFactory.getLogger(BoundedExecutor.class);
+
+    private final Executor delegate;
+    private final int maxRunning;
+    private final int maxQueued;
+    private final Queue<Runnable> queue = new ArrayDeque<>();
+    private final ThreadLocal<Boolean> runningTask = new ThreadLocal<>();
+    private int running = 0;
+
+    /**
+     * @param delegate
+     *            The shared {@link Executor} tasks are run on
+     * @param maxRunning
+     *            Maximum number of tasks running on the shared executor at the same time
+     * @param maxQueued
+     *            Maximum number of tasks waiting for a running task to finish
+     */
+    public BoundedExecutor(Executor delegate, int maxRunning, int maxQueued) {
+        if (maxRunning < 1 || maxQueued < 0) {
+            throw new IllegalArgumentException("Running limit has to be positive and queue limit must not be negative");
+        }
+        this.delegate = delegate;
+        this.maxRunning = maxRunning;
+        this.maxQueued = maxQueued;
+    }
+
+    /**
+     * @throws RejectedExecutionException
+     *             if the maximum number of tasks is running and the queue is full, or the shared executor rejected
+     *             the task
+     */
+    @Override
+    public void execute(Runnable task) {
+        synchronized (this) {
+            if (running >= maxRunning) {
+                if (queue.size() >= maxQueued) {
+                    // Tasks cancelled while waiting would only be skipped, so they do not count towards the limit
+                    queue.removeIf(queued -> queued instanceof Future && ((Future<?>) queued).isCancelled());
+                }
+                if (queue.size() >= maxQueued) {
+                    throw new RejectedExecutionException(
+                            running + " tasks running and " + queue.size() + " tasks waiting, rejecting task");
+                }
+                queue.add(task);
+                return;
+            }
+            running++;
+        }
+        try {
+            submit(task);
+        } catch (RejectedExecutionException e) {
+            finished();
+            throw e;
+        }
+    }
+
+    /**
+     * @return Number of tasks currently running on the shared executor, including tasks blocked in calls which did not
+     *         return yet
+     */
+    public synchronized int getRunningCount() {
+        return running;
+    }
+
+    /**
+     * @return Number of tasks waiting for a running task to finish
+     */
+    public synchronized int getQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * @return True if the current thread is running a task of this executor
+     */
+    public boolean isRunningTask() {
+        return runningTask.get() != null;
+    }
+
+    /**
+     * @return The shared {@link Executor} tasks are run on
+     */
+    public Executor getDelegate() {
+        return delegate;
+    }
+
+    private void submit(Runnable task) {
+        delegate.execute(() -> {
+            runningTask.set(Boolean.TRUE);
+            try {
+                task.run();
+            } finally {
+                runningTask.remove();
+                finished();
+            }
+        });
+    }
+
+    private void finished() {
+        while (true) {
+            Runnable next;
+            synchronized (this) {
+                next = queue.poll();
+                if (next == null) {
+                    running--;
+                    return;
+                }
+            }
+            try {
+                submit(next);
+                return;
+            } catch (RejectedExecutionException e) {
+                logger.warn("Shared executor rejected queued task, discarding it");
+                if (next instanceof Future) {
+                    ((Future<?>) next).cancel(false);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.concurrent;
+
+/**
+ * Snapshot of the statistics of a {@link LatestValueCommand}.
+ * 
+ * @author Dominic Lerbs
+ */
+public class CommandStatistics {
+
+    private final long appliedCount;
+    private final long skippedCount;
+    private final long failedCount;
+    private final Exception lastError;
+
+    public CommandStatistics(long appliedCount, long skippedCount, long failedCount, Exception lastError) {
+        this.appliedCount = appliedCount;
+        this.skippedCount = skippedCount;
+        this.failedCount = failedCount;
+        this.lastError = lastError;
+    }
+
+    /**
+     * @return Number of values which have been applied
+     */
+    public long getAppliedCount() {
+        return appliedCount;
+    }
+
+    /**
+     * @return Number of values which have been replaced by a newer value before being applied
+     */
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * @return Number of values which could not be applied
+     */
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * @return The exception of the last value which could not be applied, or null if no value failed
+     */
+    public Exception getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public String toString() {
+        return "CommandStatistics [applied=" + appliedCount + ", skipped=" + skippedCount + ", failed=" + failedCount
+                + ", lastError=" + lastError + "]";
+    }
+
+}
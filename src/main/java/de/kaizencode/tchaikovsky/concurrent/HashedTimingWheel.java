@@ -0,0 +1,169 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.concurrent;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Timer for large numbers of tasks with coarse deadlines. Tasks are hashed into a fixed number of buckets by their
+ * deadline tick, so scheduling is constant time and each tick only looks at a single bucket. Expired tasks are handed
+ * to an {@link Executor}, the single ticker thread never executes tasks itself.
+ * 
+ * @author Dominic Lerbs
+ */
+public class HashedTimingWheel {
+
+    private final Logger logger = LoggerFactory.getLogger(HashedTimingWheel.class);
+
+    private final String name;
+    private final long tickDurationInMs;
+    private final List<List<Timeout>> wheel;
+    private final Executor taskExecutor;
+    private final Queue<Timeout> newTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    private ScheduledExecutorService ticker;
+    private final long startTime = System.nanoTime();
+    private long currentTick = 0;
+
+    /**
+     * @param name
+     *            Name of the ticker thread
+     * @param tickDurationInMs
+     *            Resolution of the wheel
+     * @param wheelSize
+     *            Number of buckets of the wheel
+     * @param taskExecutor
+     *            {@link Executor} the expired tasks are executed on
+     */
+    public HashedTimingWheel(String name, long tickDurationInMs, int wheelSize, Executor taskExecutor) {
+        if (tickDurationInMs <= 0 || wheelSize < 1) {
+            throw new IllegalArgumentException("Tick duration and wheel size have to be positive");
+        }
+        this.name = name;
+        this.tickDurationInMs = tickDurationInMs;
+        this.taskExecutor = taskExecutor;
+        wheel = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            wheel.add(new ArrayList<Timeout>());
+        }
+    }
+
+    /**
+     * Starts the ticker thread.
+     */
+    public synchronized void start() {
+        if (ticker == null) {
+            currentTick = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) / tickDurationInMs;
+            ticker = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory(name));
+            ticker.scheduleAtFixedRate(this::tick, tickDurationInMs, tickDurationInMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops the ticker thread. Pending tasks are discarded.
+     */
+    public synchronized void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    /**
+     * Schedules a task for execution.
+     * 
+     * @param task
+     *            The task to execute
+     * @param delayInMs
+     *            Delay after which the task is executed, rounded up to the next tick
+     */
+    public void schedule(Runnable task, long delayInMs) {
+        long elapsedInMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        long deadlineTick = (elapsedInMs + Math.max(0, delayInMs) + tickDurationInMs - 1) / tickDurationInMs;
+        newTimeouts.add(new Timeout(task, deadlineTick));
+        pendingCount.incrementAndGet();
+    }
+
+    /**
+     * @return Number of tasks scheduled but not yet expired
+     */
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    private void tick() {
+        try {
+            currentTick++;
+            transferNewTimeouts();
+            List<Timeout> bucket = wheel.get((int) (currentTick % wheel.size()));
+            Iterator<Timeout> iterator = bucket.iterator();
+            while (iterator.hasNext()) {
+                Timeout timeout = iterator.next();
+                if (timeout.deadlineTick <= currentTick) {
+                    iterator.remove();
+                    pendingCount.decrementAndGet();
+                    execute(timeout.task);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Timing wheel " + name + " failed to process tick " + currentTick, e);
+        }
+    }
+
+    private void transferNewTimeouts() {
+        Timeout timeout;
+        while ((timeout = newTimeouts.poll()) != null) {
+            // Timeouts which should already have expired are executed with the current tick
+            long tick = Math.max(timeout.deadlineTick, currentTick);
+            timeout.deadlineTick = tick;
+            wheel.get((int) (tick % wheel.size())).add(timeout);
+        }
+    }
+
+    private void execute(Runnable task) {
+        try {
+            taskExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Timing wheel " + name + " was unable to execute expired task " + task);
+        }
+    }
+
+    private static class Timeout {
+        private final Runnable task;
+        private long deadlineTick;
+
+        Timeout(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+}
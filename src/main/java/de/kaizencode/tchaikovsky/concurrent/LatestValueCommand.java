@@ -0,0 +1,204 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.concurrent;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.kaizencode.tchaikovsky.exception.AllPlayException;
+
+/**
+ * Coalescing command for an idempotent setter. Values are applied asynchronously, with at most one call in flight at
+ * any time. If new values are submitted while a call is in flight, only the latest of them is applied afterwards, so
+ * the final value is guaranteed to be applied while intermediate values might be skipped.
+ * 
+ * @author Dominic Lerbs
+ *
+ * @param <T>
+ *            Type of the value to set
+ */
+public class LatestValueCommand<T> {
+
+    private final Logger logger = LoggerFactory.getLogger(LatestValueCommand.class);
+
+    /**
+     * The setter to be called with the latest value.
+     */
+    public interface Setter<T> {
+        void apply(T value) throws AllPlayException;
+    }
+
+    /**
+     * Handler for values which could not be applied.
+     */
+    public interface ErrorHandler {
+        void onError(String name, Object value, Exception e);
+    }
+
+    private final String name;
+    private final Setter<T> setter;
+    private final Executor executor;
+    private final AtomicReference<T> pending = new AtomicReference<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong appliedCount = new AtomicLong();
+    private final AtomicLong skippedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private volatile Exception lastError;
+    private volatile ErrorHandler errorHandler;
+
+    /**
+     * Creates a command applying values on the library-managed executor.
+     * 
+     * @param name
+     *            Name of the property, used for logging
+     * @param setter
+     *            The {@link Setter} applying a value
+     */
+    public LatestValueCommand(String name, Setter<T> setter) {
+        this(name, setter, AsyncCalls.getDefault().getExecutor());
+    }
+
+    /**
+     * @param name
+     *            Name of the property, used for logging
+     * @param setter
+     *            The {@link Setter} applying a value
+     * @param executor
+     *            The {@link Executor} values are applied on
+     */
+    public LatestValueCommand(String name, Setter<T> setter, Executor executor) {
+        this.name = name;
+        this.setter = setter;
+        this.executor = executor;
+    }
+
+    /**
+     * Submits a new value, replacing any value which has not been applied yet.
+     * 
+     * @param value
+     *            The value to apply
+     */
+    public void submit(T value) {
+        if (pending.getAndSet(value) != null) {
+            skippedCount.incrementAndGet();
+        }
+        schedule();
+    }
+
+    /**
+     * Sets the handler informed about values which could not be applied. Errors are logged in any case.
+     * 
+     * @param handler
+     *            The {@link ErrorHandler} to inform, or null to only log errors
+     */
+    public void setErrorHandler(ErrorHandler handler) {
+        errorHandler = handler;
+    }
+
+    /**
+     * @return Name of the property
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Number of values which have been applied
+     */
+    public long getAppliedCount() {
+        return appliedCount.get();
+    }
+
+    /**
+     * @return Number of values which have been replaced by a newer value before being applied
+     */
+    public long getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    /**
+     * @return Number of values which could not be applied
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * @return The exception of the last value which could not be applied, or null if no value failed
+     */
+    public Exception getLastError() {
+        return lastError;
+    }
+
+    /**
+     * @return Snapshot of the statistics of this command
+     */
+    public CommandStatistics getStatistics() {
+        return new CommandStatistics(appliedCount.get(), skippedCount.get(), failedCount.get(), lastError);
+    }
+
+    private void schedule() {
+        if (running.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                running.set(false);
+                logger.warn("Unable to apply " + name + ", executor rejected the command");
+                lastError = e;
+                notifyError(pending.get(), e);
+            }
+        }
+    }
+
+    private void drain() {
+        T value;
+        while ((value = pending.getAndSet(null)) != null) {
+            try {
+                setter.apply(value);
+                appliedCount.incrementAndGet();
+            } catch (AllPlayException | RuntimeException e) {
+                logger.warn("Unable to apply " + name + " " + value, e);
+                failedCount.incrementAndGet();
+                lastError = e;
+                notifyError(value, e);
+            }
+        }
+        running.set(false);
+        // A value might have been submitted after the last check but before the flag was reset
+        if (pending.get() != null) {
+            schedule();
+        }
+    }
+
+    private void notifyError(T value, Exception e) {
+        ErrorHandler handler = errorHandler;
+        if (handler != null) {
+            try {
+                handler.onError(name, value, e);
+            } catch (RuntimeException handlerException) {
+                logger.warn("Error handler of " + name + " failed", handlerException);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.kaizencode.tchaikovsky.exception.AllPlayException;
+
+/**
+ * Collapses concurrent identical calls into a single call. If a call with the same key is already in flight, the
+ * caller waits for it and receives its result (or exception) instead of performing its own call. Only suitable for
+ * idempotent calls such as property reads.
+ * 
+ * @author Dominic Lerbs
+ *
+ * @param <K>
+ *            Type of the key identifying identical calls
+ */
+public class SingleFlight<K> {
+
+    private final ConcurrentMap<K, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong executedCount = new AtomicLong();
+    private final AtomicLong collapsedCount = new AtomicLong();
+
+    /**
+     * Executes the call, or joins an identical call already in flight.
+     * 
+     * @param key
+     *            Key identifying identical calls
+     * @param call
+     *            The {@link SpeakerCall} to execute
+     * @return The result of the call
+     * @throws AllPlayException
+     *             if the call failed
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(K key, SpeakerCall<T> call) throws AllPlayException {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            collapsedCount.incrementAndGet();
+            return (T) await(existing);
+        }
+        executedCount.incrementAndGet();
+        try {
+            T result = call.call();
+            flight.complete(result);
+            return result;
+        } catch (AllPlayException | RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Ends all calls in flight for joining, e.g. because a write may have changed their result. Callers already waiting
+     * still receive the result of the call they joined, later calls are executed again.
+     */
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    /**
+     * @return Number of calls which have actually been executed
+     */
+    public long getExecutedCount() {
+        return executedCount.get();
+    }
+
+    /**
+     * @return Number of calls which joined an identical call in flight instead of being executed
+     */
+    public long getCollapsedCount() {
+        return collapsedCount.get();
+    }
+
+    private Object await(CompletableFuture<Object> flight) throws AllPlayException {
+        try {
+            return flight.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof AllPlayException) {
+                throw (AllPlayException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new AllPlayException("Collapsed call failed", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AllPlayException("Interrupted while waiting for collapsed call", e);
+        }
+    }
+
+}
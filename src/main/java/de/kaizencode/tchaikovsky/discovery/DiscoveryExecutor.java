@@ -0,0 +1,158 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.discovery;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.kaizencode.tchaikovsky.concurrent.NamedThreadFactory;
+
+/**
+ * Bounded worker pool for the discovery process. Retrieving the about data of a speaker blocks while joining a session
+ * and waiting for the reply, so this work has to be done outside of the native AllJoyn callback thread. The pool limits
+ * the number of concurrent about data requests and the number of pending requests, so that a large number of speakers
+ * appearing at the same time does not result in a thread storm.
+ * 
+ * @author Dominic Lerbs
+ */
+public class DiscoveryExecutor {
+
+    private final Logger logger = LoggerFactory.getLogger(DiscoveryExecutor.class);
+
+    /** Default number of speakers which are processed in parallel */
+    public static final int DEFAULT_PARALLELISM = 4;
+    /** Default number of speakers which may wait to be processed */
+    public static final int DEFAULT_QUEUE_LIMIT = 512;
+
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Long> aboutFetchLatencies = new ConcurrentHashMap<>();
+    private final AtomicLong aboutFetchCount = new AtomicLong();
+    private final AtomicLong aboutFetchTotalTimeInMs = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    /**
+     * Creates a new {@link DiscoveryExecutor} with default parallelism and queue limit.
+     */
+    public DiscoveryExecutor() {
+        this(DEFAULT_PARALLELISM, DEFAULT_QUEUE_LIMIT);
+    }
+
+    /**
+     * @param parallelism
+     *            Maximum number of speakers which are processed in parallel
+     * @param queueLimit
+     *            Maximum number of speakers waiting to be processed. Further speakers are dropped until the queue has
+     *            capacity again.
+     */
+    public DiscoveryExecutor(int parallelism, int queueLimit) {
+        if (parallelism < 1 || queueLimit < 1) {
+            throw new IllegalArgumentException("Parallelism and queue limit have to be at least 1");
+        }
+        executor = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueLimit), new NamedThreadFactory("tchaikovsky-discovery"));
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queues the given task for execution.
+     * 
+     * @param wellKnownName
+     *            Well-known name of the speaker the task belongs to
+     * @param task
+     *            The task to be executed
+     * @return True if the task has been queued, false if the queue limit has been reached or the executor has been shut
+     *         down
+     */
+    public boolean submit(String wellKnownName, Runnable task) {
+        try {
+            executor.execute(task);
+            logger.debug("Queued discovery of " + wellKnownName + ", queue depth is " + getQueueDepth());
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            logger.warn("Discovery queue is full or shut down, dropping speaker " + wellKnownName);
+            return false;
+        }
+    }
+
+    /**
+     * Records the time it took to retrieve the about data of a speaker.
+     * 
+     * @param wellKnownName
+     *            Well-known name of the speaker
+     * @param latencyInMs
+     *            Time in milliseconds for joining the session and retrieving the about data
+     */
+    void recordAboutFetchLatency(String wellKnownName, long latencyInMs) {
+        aboutFetchLatencies.put(wellKnownName, latencyInMs);
+        aboutFetchCount.incrementAndGet();
+        aboutFetchTotalTimeInMs.addAndGet(latencyInMs);
+    }
+
+    /**
+     * @return Number of speakers currently waiting to be processed
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return Number of speakers currently being processed
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * @return Number of speakers which have been dropped because the queue limit was reached
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * @return Latest about data retrieval time in milliseconds per well-known name
+     */
+    public Map<String, Long> getAboutFetchLatencies() {
+        return Collections.unmodifiableMap(aboutFetchLatencies);
+    }
+
+    /**
+     * @return Average about data retrieval time in milliseconds over all speakers, or 0 if no data is available yet
+     */
+    public long getAverageAboutFetchLatencyInMs() {
+        long count = aboutFetchCount.get();
+        return count == 0 ? 0 : aboutFetchTotalTimeInMs.get() / count;
+    }
+
+    /**
+     * Stops accepting new tasks and discards all speakers still waiting to be processed.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
@@ -16,26 +16,16 @@
  */
 package de.kaizencode.tchaikovsky.discovery;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 
 import org.alljoyn.bus.AboutListener;
 import org.alljoyn.bus.AboutObjectDescription;
-import org.alljoyn.bus.BusAttachment;
 import org.alljoyn.bus.BusException;
-import org.alljoyn.bus.Status;
 import org.alljoyn.bus.Variant;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import de.kaizencode.tchaikovsky.bus.SpeakerBusHandler;
-import de.kaizencode.tchaikovsky.bussignal.MediaPlayerSignalHandler;
-import de.kaizencode.tchaikovsky.exception.ConnectionException;
-import de.kaizencode.tchaikovsky.listener.SpeakerAnnouncedListener;
-import de.kaizencode.tchaikovsky.speaker.Speaker;
 import de.kaizencode.tchaikovsky.speaker.SpeakerDetails;
-import de.kaizencode.tchaikovsky.speaker.remote.RemoteSpeaker;
 import de.kaizencode.tchaikovsky.speaker.remote.RemoteSpeakerDetails;
 
 /**
@@ -47,21 +37,16 @@ public class SpeakerAboutListener implements AboutListener {
 
     private final Logger logger = LoggerFactory.getLogger(SpeakerAboutListener.class);
 
-    private final List<SpeakerAnnouncedListener> listeners = new ArrayList<>();
-    private final BusAttachment busAttachment;
-    private MediaPlayerSignalHandler signalHandler;
+    private final SpeakerRegistry speakerRegistry;
 
     /**
      * Constructor for a new About listener which is informed when a new speaker is discovered by the AllJoyn framework.
      * 
-     * @param busAttachment
-     *            The {@link BusAttachment} currently connected to
-     * @throws ConnectionException
-     *             if the listener cannot be created
+     * @param speakerRegistry
+     *            The {@link SpeakerRegistry} to register announced speakers with
      */
-    public SpeakerAboutListener(BusAttachment busAttachment) throws ConnectionException {
-        this.busAttachment = busAttachment;
-        registerSignalHandler();
+    public SpeakerAboutListener(SpeakerRegistry speakerRegistry) {
+        this.speakerRegistry = speakerRegistry;
     }
 
     @Override
@@ -73,52 +58,15 @@ public class SpeakerAboutListener implements AboutListener {
         try {
             SpeakerDetails details = new RemoteSpeakerDetails(aboutData);
 
-            logger.info("New speaker " + details.getDeviceId() + "(" + details.getDeviceName()
+            logger.info("Speaker " + details.getDeviceId() + "(" + details.getDeviceName()
                     + ") announced at busName " + speakerBusName + ", version=" + version + ", port=" + port);
 
-            SpeakerBusHandler busHandler = new SpeakerBusHandler(busAttachment, speakerBusName, port, signalHandler);
-            RemoteSpeaker speaker = new RemoteSpeaker(busHandler, details);
-
-            for (SpeakerAnnouncedListener listener : listeners) {
-                listener.onSpeakerAnnounced(speaker);
-            }
+            speakerRegistry.register(speakerBusName, port, details);
         } catch (BusException e) {
             logger.error("Unable to read aboutData for speaker at bus " + speakerBusName, e);
         }
     }
 
-    /**
-     * Add a new {@link SpeakerAnnouncedListener} to be informed when a new {@link Speaker} has been discovered.
-     * 
-     * @param listener
-     *            The {@link SpeakerAnnouncedListener} to be informed
-     */
-    public void addSpeakerAnnouncedListener(SpeakerAnnouncedListener listener) {
-        listeners.add(listener);
-        logger.debug("New SpeakerAnnouncedListener " + listener.toString() + " has been added");
-    }
-
-    /**
-     * Remove a {@link SpeakerAnnouncedListener}
-     * 
-     * @param listener
-     *            The {@link SpeakerAnnouncedListener} to be removed
-     */
-    public void removeSpeakerAnnouncedListener(SpeakerAnnouncedListener listener) {
-        listeners.remove(listener);
-        logger.debug("SpeakerAnnouncedListener " + listener.toString() + " has been removed");
-    }
-
-    private void registerSignalHandler() throws ConnectionException {
-        logger.debug("Registering signal handler");
-        signalHandler = new MediaPlayerSignalHandler(busAttachment);
-
-        Status status = busAttachment.registerSignalHandlers(signalHandler);
-        if (status != Status.OK) {
-            throw new ConnectionException("Error while registering signal handler on bus", status);
-        }
-    }
-
     private void logObjectDescriptions(AboutObjectDescription[] objectDescriptions) {
         if (logger.isTraceEnabled()) {
             logger.trace("Announced ObjectDescriptions:");
@@ -16,29 +16,24 @@
  */
 package de.kaizencode.tchaikovsky.discovery;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.alljoyn.bus.AboutProxy;
 import org.alljoyn.bus.BusAttachment;
 import org.alljoyn.bus.BusException;
 import org.alljoyn.bus.BusListener;
 import org.alljoyn.bus.Mutable;
-import org.alljoyn.bus.SessionListener;
 import org.alljoyn.bus.SessionOpts;
 import org.alljoyn.bus.Status;
 import org.alljoyn.bus.Variant;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import de.kaizencode.tchaikovsky.bus.SpeakerBusHandler;
-import de.kaizencode.tchaikovsky.bussignal.MediaPlayerSignalHandler;
+import de.kaizencode.tchaikovsky.bus.DiscoverySession;
 import de.kaizencode.tchaikovsky.exception.AllPlayException;
 import de.kaizencode.tchaikovsky.exception.ConnectionException;
 import de.kaizencode.tchaikovsky.exception.SpeakerException;
-import de.kaizencode.tchaikovsky.listener.SpeakerAnnouncedListener;
-import de.kaizencode.tchaikovsky.speaker.Speaker;
 import de.kaizencode.tchaikovsky.speaker.SpeakerDetails;
 import de.kaizencode.tchaikovsky.speaker.remote.RemoteSpeaker;
 import de.kaizencode.tchaikovsky.speaker.remote.RemoteSpeakerDetails;
@@ -53,15 +48,35 @@ public class SpeakerBusListener extends BusListener {
     private final Logger logger = LoggerFactory.getLogger(SpeakerBusListener.class);
 
     private BusAttachment busAttachment;
-    private final List<SpeakerAnnouncedListener> listeners = new ArrayList<>();
+    private final SpeakerRegistry speakerRegistry;
+    private final DiscoveryExecutor discoveryExecutor;
+    private volatile long sessionReuseTimeoutInMs = 0;
 
-    private MediaPlayerSignalHandler signalHandler;
+    static final short PORT = 1;
 
-    private static final short PORT = 1;
-
-    public SpeakerBusListener(BusAttachment busAttachment) throws ConnectionException {
+    /**
+     * @param busAttachment
+     *            The {@link BusAttachment} currently connected to
+     * @param speakerRegistry
+     *            The {@link SpeakerRegistry} to register found speakers with
+     * @param discoveryExecutor
+     *            The {@link DiscoveryExecutor} used for retrieving the about data of found speakers
+     */
+    public SpeakerBusListener(BusAttachment busAttachment, SpeakerRegistry speakerRegistry,
+            DiscoveryExecutor discoveryExecutor) {
         this.busAttachment = busAttachment;
-        registerSignalHandler();
+        this.speakerRegistry = speakerRegistry;
+        this.discoveryExecutor = discoveryExecutor;
+    }
+
+    /**
+     * Enables reusing the session joined for retrieving the about data as control session of the speaker.
+     * 
+     * @param idleTimeoutInMs
+     *            Time in milliseconds after which an unused session is left, or 0 to leave the session immediately
+     */
+    public void setSessionReuseTimeout(long idleTimeoutInMs) {
+        sessionReuseTimeoutInMs = idleTimeoutInMs;
     }
 
     @Override
@@ -72,29 +87,55 @@ public class SpeakerBusListener extends BusListener {
             // foundAdvertisedName is called from the native library. If we call the native
             // library from here in the same thread, a deadlock might occur. This happens especially when multiple
             // speakers are found at almost the same time.
-            handleFoundSpeakerInNewThread(wellKnownName);
+            handleFoundSpeakerInDiscoveryExecutor(wellKnownName);
         }
     }
 
-    private void handleFoundSpeakerInNewThread(String wellKnownName) {
+    private void handleFoundSpeakerInDiscoveryExecutor(String wellKnownName) {
         Runnable run = new Runnable() {
             @Override
             public void run() {
+                DiscoverySession session = null;
                 try {
+                    registerFromCache(wellKnownName);
                     logger.info("Creating speaker details " + wellKnownName);
-                    SpeakerDetails speakerDetails = createSpeakerDetails(wellKnownName);
-                    logger.info("Announcing new speaker " + wellKnownName);
-                    announceNewSpeaker(wellKnownName, speakerDetails);
+                    long start = System.nanoTime();
+                    session = joinSession(wellKnownName);
+                    SpeakerDetails speakerDetails = createSpeakerDetails(wellKnownName, session.getSessionId());
+                    discoveryExecutor.recordAboutFetchLatency(wellKnownName,
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    logger.info("Registering speaker " + wellKnownName);
+                    RemoteSpeaker speaker = speakerRegistry.register(wellKnownName, PORT, speakerDetails);
+                    long reuseTimeoutInMs = sessionReuseTimeoutInMs;
+                    if (reuseTimeoutInMs > 0) {
+                        speaker.offerDiscoverySession(session, reuseTimeoutInMs);
+                        session = null;
+                    }
                 } catch (AllPlayException e) {
                     logger.warn("Unable to announce speaker for advertised name " + wellKnownName, e);
+                } finally {
+                    if (session != null) {
+                        session.close();
+                    }
                 }
             }
         };
-        new Thread(run).start();
+        discoveryExecutor.submit(wellKnownName, run);
     }
 
-    private SpeakerDetails createSpeakerDetails(String wellKnownName) throws AllPlayException {
-        Map<String, Variant> aboutData = getAboutData(wellKnownName);
+    private void registerFromCache(String wellKnownName) {
+        SpeakerDetailsCache cache = speakerRegistry.getDetailsCache();
+        if (cache != null) {
+            SpeakerDetails cachedDetails = cache.getForWellKnownName(wellKnownName);
+            if (cachedDetails != null && speakerRegistry.getSpeaker(cachedDetails.getDeviceId()) == null) {
+                logger.info("Registering speaker " + wellKnownName + " from cache, revalidating about data");
+                speakerRegistry.register(wellKnownName, PORT, cachedDetails);
+            }
+        }
+    }
+
+    private SpeakerDetails createSpeakerDetails(String wellKnownName, int sessionId) throws AllPlayException {
+        Map<String, Variant> aboutData = getAboutData(wellKnownName, sessionId);
         try {
             return new RemoteSpeakerDetails(wellKnownName, aboutData);
         } catch (BusException e) {
@@ -102,43 +143,32 @@ public class SpeakerBusListener extends BusListener {
         }
     }
 
-    private Map<String, Variant> getAboutData(String sessionHost) throws AllPlayException {
-        int sessionId = joinSession(sessionHost);
+    private Map<String, Variant> getAboutData(String sessionHost, int sessionId) throws AllPlayException {
         try {
             AboutProxy aboutProxy = new AboutProxy(busAttachment, sessionHost, sessionId);
             return aboutProxy.getAboutData("en");
         } catch (BusException e) {
             throw new SpeakerException("Unable to retrieve about data", e);
-        } finally {
-            busAttachment.leaveSession(sessionId);
         }
     }
 
-    private int joinSession(String sessionHost) throws ConnectionException {
+    private DiscoverySession joinSession(String sessionHost) throws ConnectionException {
         Mutable.IntegerValue sessionId = new Mutable.IntegerValue();
         logger.info("Joining session with host [" + sessionHost + "], port [" + PORT + "]");
 
-        Status status = busAttachment.joinSession(sessionHost, PORT, sessionId, createSessionOptions(),
-                new SessionListener());
+        DiscoverySession session = new DiscoverySession(busAttachment, sessionHost, PORT);
+        Status status = busAttachment.joinSession(sessionHost, PORT, sessionId, createSessionOptions(), session);
         if (status != Status.OK) {
             throw new ConnectionException("Unable to join session " + sessionId.value + " on host " + sessionHost,
                     status);
         }
         logger.info("Joined session from local bus [" + busAttachment.getUniqueName() + "] to remote host ["
                 + sessionHost + "] on sessionId [" + sessionId.value + "]");
-        return sessionId.value;
+        session.setSessionId(sessionId.value);
+        return session;
 
     }
 
-    private void announceNewSpeaker(String hostName, SpeakerDetails details) {
-        SpeakerBusHandler busHandler = new SpeakerBusHandler(busAttachment, hostName, PORT, signalHandler);
-        RemoteSpeaker speaker = new RemoteSpeaker(busHandler, details);
-
-        for (SpeakerAnnouncedListener listener : listeners) {
-            listener.onSpeakerAnnounced(speaker);
-        }
-    }
-
     private SessionOpts createSessionOptions() {
         SessionOpts sessionOpts = new SessionOpts();
         sessionOpts.traffic = SessionOpts.TRAFFIC_MESSAGES;
@@ -148,36 +178,4 @@ public class SpeakerBusListener extends BusListener {
         return sessionOpts;
     }
 
-    private void registerSignalHandler() throws ConnectionException {
-        logger.debug("Registering signal handler");
-        signalHandler = new MediaPlayerSignalHandler(busAttachment);
-
-        Status status = busAttachment.registerSignalHandlers(signalHandler);
-        if (status != Status.OK) {
-            throw new ConnectionException("Error while registering signal handler on bus", status);
-        }
-    }
-
-    /**
-     * Add a new {@link SpeakerAnnouncedListener} to be informed when a new {@link Speaker} has been discovered.
-     * 
-     * @param listener
-     *            The {@link SpeakerAnnouncedListener} to be informed
-     */
-    public void addSpeakerAnnouncedListener(SpeakerAnnouncedListener listener) {
-        listeners.add(listener);
-        logger.debug("New SpeakerAnnouncedListener " + listener.toString() + " has been added");
-    }
-
-    /**
-     * Remove a {@link SpeakerAnnouncedListener}
-     * 
-     * @param listener
-     *            The {@link SpeakerAnnouncedListener} to be removed
-     */
-    public void removeSpeakerAnnouncedListener(SpeakerAnnouncedListener listener) {
-        listeners.remove(listener);
-        logger.debug("SpeakerAnnouncedListener " + listener.toString() + " has been removed");
-    }
-
 }
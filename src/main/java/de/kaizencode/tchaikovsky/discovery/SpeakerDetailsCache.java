@@ -0,0 +1,229 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.discovery;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.kaizencode.tchaikovsky.AllPlay;
+import de.kaizencode.tchaikovsky.concurrent.NamedThreadFactory;
+import de.kaizencode.tchaikovsky.speaker.SpeakerDetails;
+import de.kaizencode.tchaikovsky.speaker.remote.RemoteSpeakerDetails;
+
+/**
+ * Persistent cache of {@link SpeakerDetails}, keyed by device ID. Allows speakers known from a previous run to be
+ * announced immediately, without waiting for the about data to be retrieved from each speaker. The cache is stored as
+ * a properties file, which is rewritten in the background shortly after the details of speakers have changed, so that
+ * the changes of many speakers announced at once are written together.
+ * 
+ * @author Dominic Lerbs
+ */
+public class SpeakerDetailsCache {
+
+    private final Logger logger = LoggerFactory.getLogger(SpeakerDetailsCache.class);
+
+    private static final String KEY_SEPARATOR = "/";
+    private static final long FLUSH_DELAY_IN_MS = 2000;
+
+    private final Path file;
+    private final ConcurrentMap<String, RemoteSpeakerDetails> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final ScheduledExecutorService flushExecutor = Executors
+            .newSingleThreadScheduledExecutor(new NamedThreadFactory("tchaikovsky-details-cache"));
+
+    /**
+     * @param file
+     *            The file to load the cache from and store it to
+     */
+    public SpeakerDetailsCache(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Loads the cache from disk. A missing or unreadable file results in an empty cache.
+     */
+    public void load() {
+        entries.clear();
+        if (!Files.exists(file)) {
+            logger.debug("Speaker details cache " + file + " does not exist yet");
+            return;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            logger.warn("Unable to read speaker details cache " + file, e);
+            return;
+        }
+
+        Map<String, Map<String, String>> valuesByDevice = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            int separator = key.lastIndexOf(KEY_SEPARATOR);
+            if (separator > 0) {
+                String deviceId = key.substring(0, separator);
+                Map<String, String> values = valuesByDevice.get(deviceId);
+                if (values == null) {
+                    values = new HashMap<>();
+                    valuesByDevice.put(deviceId, values);
+                }
+                values.put(key.substring(separator + 1), properties.getProperty(key));
+            }
+        }
+        for (Map<String, String> values : valuesByDevice.values()) {
+            try {
+                RemoteSpeakerDetails details = RemoteSpeakerDetails.fromStringMap(values);
+                entries.put(details.getDeviceId(), details);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring invalid speaker details cache entry: " + e.getMessage());
+            }
+        }
+        logger.info("Loaded " + entries.size() + " speakers from details cache " + file);
+    }
+
+    /**
+     * Writes the cache to disk.
+     */
+    public synchronized void store() {
+        Properties properties = new Properties();
+        for (RemoteSpeakerDetails details : entries.values()) {
+            for (Map.Entry<String, String> value : details.toStringMap().entrySet()) {
+                properties.setProperty(details.getDeviceId() + KEY_SEPARATOR + value.getKey(), value.getValue());
+            }
+        }
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path tempFile = Files.createTempFile(parent, "speakers", ".tmp");
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                properties.store(out, "Tchaikovsky speaker details cache");
+            }
+            try {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to write speaker details cache " + file, e);
+        }
+    }
+
+    /**
+     * Writes the cache to disk if changes are pending and stops the background writer.
+     */
+    public void close() {
+        flushExecutor.shutdownNow();
+        if (flushScheduled.getAndSet(false)) {
+            store();
+        }
+    }
+
+    /**
+     * Updates the cached details of a speaker. If the details have changed, the cache is stored in the background.
+     * 
+     * @param details
+     *            The current {@link SpeakerDetails} of the speaker
+     */
+    public void update(SpeakerDetails details) {
+        if (!(details instanceof RemoteSpeakerDetails)) {
+            return;
+        }
+        RemoteSpeakerDetails remoteDetails = (RemoteSpeakerDetails) details;
+        RemoteSpeakerDetails previous = entries.put(remoteDetails.getDeviceId(), remoteDetails);
+        if (previous == null || !previous.toStringMap().equals(remoteDetails.toStringMap())) {
+            logger.debug("Details of speaker " + remoteDetails + " changed, updating cache");
+            scheduleFlush();
+        }
+    }
+
+    private void scheduleFlush() {
+        if (!flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            flushExecutor.schedule(() -> {
+                if (flushScheduled.getAndSet(false)) {
+                    store();
+                }
+            }, FLUSH_DELAY_IN_MS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            flushScheduled.set(false);
+            logger.debug("Speaker details cache " + file + " has been closed, storing directly");
+            store();
+        }
+    }
+
+    /**
+     * @return All cached speaker details
+     */
+    public Collection<RemoteSpeakerDetails> getAll() {
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * Looks up the cached details for an advertised well-known name. Details are only returned if they have been
+     * stored for the same well-known name.
+     * 
+     * @param wellKnownName
+     *            The advertised well-known name
+     * @return The cached {@link RemoteSpeakerDetails} or null if none match the well-known name
+     */
+    public RemoteSpeakerDetails getForWellKnownName(String wellKnownName) {
+        if (!wellKnownName.startsWith(AllPlay.WELL_KNOWN_NAME_PREFIX)) {
+            return null;
+        }
+        RemoteSpeakerDetails details = entries.get(wellKnownName.substring(AllPlay.WELL_KNOWN_NAME_PREFIX.length()));
+        if (details != null && wellKnownName.equals(getWellKnownName(details))) {
+            return details;
+        }
+        return null;
+    }
+
+    /**
+     * @param details
+     *            The {@link SpeakerDetails} of a speaker
+     * @return The well-known name the speaker can be reached with
+     */
+    public static String getWellKnownName(SpeakerDetails details) {
+        if (details.getWellKnownName() != null) {
+            return details.getWellKnownName();
+        }
+        return AllPlay.WELL_KNOWN_NAME_PREFIX + details.getDeviceId();
+    }
+
+}
@@ -0,0 +1,288 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.discovery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.alljoyn.bus.BusAttachment;
+import org.alljoyn.bus.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.kaizencode.tchaikovsky.AllPlay.DiscoveryMode;
+import de.kaizencode.tchaikovsky.bus.SpeakerBusHandler;
+import de.kaizencode.tchaikovsky.bussignal.MediaPlayerSignalHandler;
+import de.kaizencode.tchaikovsky.bussignal.SpeakerEventDispatcher;
+import de.kaizencode.tchaikovsky.concurrent.AsyncCalls;
+import de.kaizencode.tchaikovsky.exception.ConnectionException;
+import de.kaizencode.tchaikovsky.listener.SpeakerAnnouncedListener;
+import de.kaizencode.tchaikovsky.speaker.Speaker;
+import de.kaizencode.tchaikovsky.speaker.SpeakerDetails;
+import de.kaizencode.tchaikovsky.speaker.remote.PlaylistItemPool;
+import de.kaizencode.tchaikovsky.speaker.remote.RemoteSpeaker;
+import de.kaizencode.tchaikovsky.speaker.remote.RemoteSpeaker.SignalPriming;
+
+/**
+ * Registry of all speakers discovered on the bus, keyed by their device ID. Speakers which are announced repeatedly or
+ * by more than one {@link DiscoveryMode} are resolved to a single {@link RemoteSpeaker} instance, and
+ * {@link SpeakerAnnouncedListener}s are only informed about speakers which have not been known before.
+ * 
+ * @author Dominic Lerbs
+ */
+public class SpeakerRegistry {
+
+    private final Logger logger = LoggerFactory.getLogger(SpeakerRegistry.class);
+
+    private final ConcurrentMap<String, RemoteSpeaker> speakers = new ConcurrentHashMap<>();
+    private final List<SpeakerAnnouncedListener> listeners = new CopyOnWriteArrayList<>();
+    private final BusAttachment busAttachment;
+    private final AsyncCalls calls;
+    private final PlaylistItemPool itemPool;
+    private MediaPlayerSignalHandler signalHandler;
+    private volatile SpeakerDetailsCache detailsCache;
+    private volatile boolean autoReconnect = false;
+    private volatile SignalPriming signalPriming = SignalPriming.PLAYLIST;
+
+    /**
+     * Creates a new registry and registers the {@link MediaPlayerSignalHandler} shared by all speakers on the bus.
+     * 
+     * @param busAttachment
+     *            The {@link BusAttachment} currently connected to
+     * @param eventDispatcher
+     *            The {@link SpeakerEventDispatcher} delivering speaker events to listeners
+     * @throws ConnectionException
+     *             if the signal handler cannot be registered
+     */
+    public SpeakerRegistry(BusAttachment busAttachment, SpeakerEventDispatcher eventDispatcher)
+            throws ConnectionException {
+        this(busAttachment, eventDispatcher, AsyncCalls.getDefault());
+    }
+
+    /**
+     * Creates a new registry and registers the {@link MediaPlayerSignalHandler} shared by all speakers on the bus.
+     * 
+     * @param busAttachment
+     *            The {@link BusAttachment} currently connected to
+     * @param eventDispatcher
+     *            The {@link SpeakerEventDispatcher} delivering speaker events to listeners
+     * @param calls
+     *            The {@link AsyncCalls} shared by all speakers, of which each speaker gets its own bounded share
+     * @throws ConnectionException
+     *             if the signal handler cannot be registered
+     */
+    public SpeakerRegistry(BusAttachment busAttachment, SpeakerEventDispatcher eventDispatcher, AsyncCalls calls)
+            throws ConnectionException {
+        this(busAttachment, eventDispatcher, calls, new PlaylistItemPool());
+    }
+
+    /**
+     * Creates a new registry and registers the {@link MediaPlayerSignalHandler} shared by all speakers on the bus.
+     * 
+     * @param busAttachment
+     *            The {@link BusAttachment} currently connected to
+     * @param eventDispatcher
+     *            The {@link SpeakerEventDispatcher} delivering speaker events to listeners
+     * @param calls
+     *            The {@link AsyncCalls} shared by all speakers, of which each speaker gets its own bounded share
+     * @param itemPool
+     *            The {@link PlaylistItemPool} deduplicating the playlist items of all speakers
+     * @throws ConnectionException
+     *             if the signal handler cannot be registered
+     */
+    public SpeakerRegistry(BusAttachment busAttachment, SpeakerEventDispatcher eventDispatcher, AsyncCalls calls,
+            PlaylistItemPool itemPool) throws ConnectionException {
+        this.busAttachment = busAttachment;
+        this.calls = calls;
+        this.itemPool = itemPool;
+        registerSignalHandler(eventDispatcher);
+    }
+
+    /**
+     * Registers a speaker which has been announced on the bus. If a speaker with the same device ID is already known,
+     * the existing instance is updated with the given bus name, port and details. Else a new speaker is created and
+     * all {@link SpeakerAnnouncedListener}s are informed.
+     * 
+     * @param busName
+     *            Bus name or well-known name of the speaker
+     * @param port
+     *            Port where the speaker is listening
+     * @param details
+     *            The {@link SpeakerDetails} as reported by the speaker
+     * @return The {@link RemoteSpeaker} registered for the device ID
+     */
+    public RemoteSpeaker register(String busName, short port, SpeakerDetails details) {
+        SpeakerDetailsCache cache = detailsCache;
+        if (cache != null) {
+            cache.update(details);
+        }
+        String deviceId = details.getDeviceId();
+        RemoteSpeaker speaker = speakers.get(deviceId);
+        if (speaker == null) {
+            RemoteSpeaker newSpeaker = createSpeaker(busName, port, details);
+            speaker = speakers.putIfAbsent(deviceId, newSpeaker);
+            if (speaker == null) {
+                logger.info("Registered new speaker " + newSpeaker + " at " + busName);
+                notifyListeners(newSpeaker);
+                return newSpeaker;
+            }
+        }
+        logger.debug("Speaker " + speaker + " announced again at " + busName);
+        speaker.updateAnnouncement(busName, port, details);
+        return speaker;
+    }
+
+    /**
+     * Registers all speakers contained in the {@link SpeakerDetailsCache}, using their well-known name as bus name.
+     * Speakers which are already registered are left untouched.
+     */
+    public void registerCachedSpeakers() {
+        SpeakerDetailsCache cache = detailsCache;
+        if (cache == null) {
+            return;
+        }
+        for (SpeakerDetails details : cache.getAll()) {
+            if (!speakers.containsKey(details.getDeviceId())) {
+                register(SpeakerDetailsCache.getWellKnownName(details), SpeakerBusListener.PORT, details);
+            }
+        }
+    }
+
+    /**
+     * Enables or disables automatic reconnection for all registered speakers and all speakers registered later.
+     * 
+     * @param enabled
+     *            True to reconnect speakers automatically after their session has been lost
+     * @see Speaker#setAutoReconnect(boolean)
+     */
+    public void setAutoReconnect(boolean enabled) {
+        autoReconnect = enabled;
+        for (RemoteSpeaker speaker : speakers.values()) {
+            speaker.setAutoReconnect(enabled);
+        }
+    }
+
+    /**
+     * Sets the call activating signal delivery for all registered speakers and all speakers registered later.
+     * 
+     * @param priming
+     *            The {@link SignalPriming} to use
+     * @see RemoteSpeaker#setSignalPriming(SignalPriming)
+     */
+    public void setSignalPriming(SignalPriming priming) {
+        signalPriming = priming;
+        for (RemoteSpeaker speaker : speakers.values()) {
+            speaker.setSignalPriming(priming);
+        }
+    }
+
+    /**
+     * Enables or disables the compact play state mode of the signal handler shared by all speakers.
+     * 
+     * @param enabled
+     *            True to enable the compact play state mode
+     * @see MediaPlayerSignalHandler#setCompactPlayState(boolean)
+     */
+    public void setCompactPlayState(boolean enabled) {
+        signalHandler.setCompactPlayState(enabled);
+    }
+
+    /**
+     * Sets the {@link SpeakerDetailsCache} to be updated with the details of every registered speaker.
+     * 
+     * @param detailsCache
+     *            The cache to use, or null to disable caching
+     */
+    public void setDetailsCache(SpeakerDetailsCache detailsCache) {
+        this.detailsCache = detailsCache;
+    }
+
+    /**
+     * @return The {@link SpeakerDetailsCache} in use, or null if caching is disabled
+     */
+    public SpeakerDetailsCache getDetailsCache() {
+        return detailsCache;
+    }
+
+    /**
+     * @param deviceId
+     *            The device ID of the speaker
+     * @return The registered {@link RemoteSpeaker} or null if no speaker with the given device ID is known
+     */
+    public RemoteSpeaker getSpeaker(String deviceId) {
+        return speakers.get(deviceId);
+    }
+
+    /**
+     * @return All registered speakers
+     */
+    public Collection<Speaker> getSpeakers() {
+        return Collections.unmodifiableCollection(new ArrayList<Speaker>(speakers.values()));
+    }
+
+    /**
+     * Add a new {@link SpeakerAnnouncedListener} to be informed when a new {@link Speaker} has been discovered.
+     * 
+     * @param listener
+     *            The {@link SpeakerAnnouncedListener} to be informed
+     */
+    public void addSpeakerAnnouncedListener(SpeakerAnnouncedListener listener) {
+        listeners.add(listener);
+        logger.debug("New SpeakerAnnouncedListener " + listener.toString() + " has been added");
+    }
+
+    /**
+     * Remove a {@link SpeakerAnnouncedListener}
+     * 
+     * @param listener
+     *            The {@link SpeakerAnnouncedListener} to be removed
+     */
+    public void removeSpeakerAnnouncedListener(SpeakerAnnouncedListener listener) {
+        listeners.remove(listener);
+        logger.debug("SpeakerAnnouncedListener " + listener.toString() + " has been removed");
+    }
+
+    private RemoteSpeaker createSpeaker(String busName, short port, SpeakerDetails details) {
+        SpeakerBusHandler busHandler = new SpeakerBusHandler(busAttachment, busName, port, signalHandler);
+        RemoteSpeaker speaker = new RemoteSpeaker(busHandler, details, calls, itemPool);
+        speaker.setAutoReconnect(autoReconnect);
+        speaker.setSignalPriming(signalPriming);
+        return speaker;
+    }
+
+    private void notifyListeners(RemoteSpeaker speaker) {
+        for (SpeakerAnnouncedListener listener : listeners) {
+            listener.onSpeakerAnnounced(speaker);
+        }
+    }
+
+    private void registerSignalHandler(SpeakerEventDispatcher eventDispatcher) throws ConnectionException {
+        logger.debug("Registering signal handler");
+        signalHandler = new MediaPlayerSignalHandler(busAttachment, eventDispatcher, itemPool);
+
+        Status status = busAttachment.registerSignalHandlers(signalHandler);
+        if (status != Status.OK) {
+            throw new ConnectionException("Error while registering signal handler on bus", status);
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.exception;
+
+/**
+ * Exception in case a call has been rejected without contacting the speaker, because the speaker is known to be
+ * unreachable.
+ * 
+ * @author Dominic Lerbs
+ */
+public class SpeakerUnavailableException extends SpeakerException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SpeakerUnavailableException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,313 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.health;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.kaizencode.tchaikovsky.concurrent.HashedTimingWheel;
+import de.kaizencode.tchaikovsky.concurrent.NamedThreadFactory;
+import de.kaizencode.tchaikovsky.health.SpeakerHealth.Liveness;
+import de.kaizencode.tchaikovsky.listener.SpeakerAnnouncedListener;
+import de.kaizencode.tchaikovsky.listener.SpeakerLivenessListener;
+import de.kaizencode.tchaikovsky.speaker.Speaker;
+
+/**
+ * Periodically pings all monitored speakers and reports changes of their liveness to
+ * {@link SpeakerLivenessListener}s.
+ * 
+ * Pings are scheduled on a {@link HashedTimingWheel}. The first ping of each speaker is placed randomly within the
+ * interval, so the pings of a fleet are spread evenly instead of being sent in bursts, and at most
+ * {@link #setMaxConcurrency(int) maxConcurrency} pings run at the same time. The interval and ping timeout adapt to
+ * each speaker: slow speakers are checked more often, a failed ping is confirmed quickly, and speakers which stay
+ * unreachable are checked with exponentially growing intervals.
+ * 
+ * @author Dominic Lerbs
+ */
+public class HealthMonitor implements SpeakerAnnouncedListener {
+
+    private final Logger logger = LoggerFactory.getLogger(HealthMonitor.class);
+
+    public static final long DEFAULT_INTERVAL_IN_MS = 30000;
+    public static final long MIN_INTERVAL_IN_MS = 2000;
+    public static final long MAX_INTERVAL_IN_MS = 300000;
+    public static final int DEFAULT_MAX_CONCURRENCY = 8;
+    public static final int DEFAULT_PING_TIMEOUT_IN_MS = 3000;
+    public static final int MIN_PING_TIMEOUT_IN_MS = 500;
+    /** Number of consecutive failed pings after which a speaker is reported as dead */
+    public static final int FAILURE_THRESHOLD = 2;
+
+    private static final long TICK_DURATION_IN_MS = 100;
+    private static final int WHEEL_SIZE = 512;
+
+    private final ConcurrentMap<Speaker, SpeakerHealth> health = new ConcurrentHashMap<>();
+    private final List<SpeakerLivenessListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile long intervalInMs = DEFAULT_INTERVAL_IN_MS;
+    private volatile int pingTimeoutInMs = DEFAULT_PING_TIMEOUT_IN_MS;
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+
+    private volatile boolean running = false;
+    /** Incremented with each start, so that checks of a previous run do not schedule further checks */
+    private volatile long runEpoch = 0;
+    private ThreadPoolExecutor pingExecutor;
+    private HashedTimingWheel wheel;
+
+    /**
+     * @param intervalInMs
+     *            Interval between two pings of a healthy speaker
+     */
+    public void setInterval(long intervalInMs) {
+        if (intervalInMs < MIN_INTERVAL_IN_MS || intervalInMs > MAX_INTERVAL_IN_MS) {
+            throw new IllegalArgumentException("Interval has to be between " + MIN_INTERVAL_IN_MS + "ms and "
+                    + MAX_INTERVAL_IN_MS + "ms");
+        }
+        this.intervalInMs = intervalInMs;
+    }
+
+    /**
+     * @param pingTimeoutInMs
+     *            Maximum timeout of a single ping
+     */
+    public void setPingTimeout(int pingTimeoutInMs) {
+        if (pingTimeoutInMs < MIN_PING_TIMEOUT_IN_MS) {
+            throw new IllegalArgumentException("Ping timeout has to be at least " + MIN_PING_TIMEOUT_IN_MS + "ms");
+        }
+        this.pingTimeoutInMs = pingTimeoutInMs;
+    }
+
+    /**
+     * Sets the maximum number of pings running at the same time. Has to be called before {@link #start(Collection)}
+     * to take effect.
+     * 
+     * @param maxConcurrency
+     *            Maximum number of concurrent pings
+     */
+    public synchronized void setMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Concurrency has to be positive");
+        }
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Starts monitoring the given speakers.
+     * 
+     * @param speakers
+     *            The {@link Speaker}s to monitor
+     */
+    public synchronized void start(Collection<Speaker> speakers) {
+        if (running) {
+            return;
+        }
+        pingExecutor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new NamedThreadFactory("tchaikovsky-health"));
+        pingExecutor.allowCoreThreadTimeOut(true);
+        wheel = new HashedTimingWheel("tchaikovsky-health-timer", TICK_DURATION_IN_MS, WHEEL_SIZE, pingExecutor);
+        wheel.start();
+        runEpoch++;
+        running = true;
+        for (SpeakerHealth speakerHealth : health.values()) {
+            scheduleFirstCheck(speakerHealth);
+        }
+        for (Speaker speaker : speakers) {
+            addSpeaker(speaker);
+        }
+        logger.debug("Health monitor started for " + health.size() + " speakers");
+    }
+
+    /**
+     * Stops monitoring. The collected health of the speakers is kept.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        wheel.stop();
+        pingExecutor.shutdownNow();
+        logger.debug("Health monitor stopped");
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Adds a speaker to be monitored. If another instance of the same speaker is already monitored, e.g. one created
+     * before the bus has been reconnected, it is replaced by the given instance.
+     * 
+     * @param speaker
+     *            The {@link Speaker} to monitor
+     */
+    public synchronized void addSpeaker(Speaker speaker) {
+        SpeakerHealth existing = health.get(speaker);
+        if (existing != null) {
+            if (existing.getSpeaker() == speaker) {
+                return;
+            }
+            // Removed first, as replacing the value would keep the stale instance as key
+            health.remove(speaker);
+        }
+        SpeakerHealth speakerHealth = new SpeakerHealth(speaker);
+        health.put(speaker, speakerHealth);
+        if (running) {
+            scheduleFirstCheck(speakerHealth);
+        }
+    }
+
+    /**
+     * Stops monitoring a speaker.
+     * 
+     * @param speaker
+     *            The {@link Speaker} to remove
+     */
+    public void removeSpeaker(Speaker speaker) {
+        health.remove(speaker);
+    }
+
+    /**
+     * Stops monitoring all speakers and discards their collected health.
+     */
+    public void removeAllSpeakers() {
+        health.clear();
+    }
+
+    @Override
+    public void onSpeakerAnnounced(Speaker speaker) {
+        addSpeaker(speaker);
+    }
+
+    /**
+     * @param speaker
+     *            The monitored {@link Speaker}
+     * @return The {@link SpeakerHealth} of the speaker, or null if the speaker is not monitored
+     */
+    public SpeakerHealth getHealth(Speaker speaker) {
+        return health.get(speaker);
+    }
+
+    /**
+     * @return The {@link SpeakerHealth} of all monitored speakers
+     */
+    public Map<Speaker, SpeakerHealth> getHealth() {
+        return Collections.unmodifiableMap(health);
+    }
+
+    /**
+     * @return Number of pings waiting for a free slot
+     */
+    public int getQueuedPings() {
+        ThreadPoolExecutor executor = pingExecutor;
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+
+    public void addLivenessListener(SpeakerLivenessListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeLivenessListener(SpeakerLivenessListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void scheduleFirstCheck(SpeakerHealth speakerHealth) {
+        long delayInMs = ThreadLocalRandom.current().nextLong(intervalInMs);
+        speakerHealth.setIntervalInMs(intervalInMs);
+        schedule(speakerHealth, delayInMs, runEpoch);
+    }
+
+    private synchronized void schedule(SpeakerHealth speakerHealth, long delayInMs, long epoch) {
+        HashedTimingWheel currentWheel = wheel;
+        if (running && epoch == runEpoch && currentWheel != null) {
+            currentWheel.schedule(() -> check(speakerHealth, epoch), delayInMs);
+        }
+    }
+
+    private void check(SpeakerHealth speakerHealth, long epoch) {
+        Speaker speaker = speakerHealth.getSpeaker();
+        if (!running || epoch != runEpoch || health.get(speaker) != speakerHealth) {
+            return;
+        }
+        long start = System.nanoTime();
+        boolean alive;
+        try {
+            alive = speaker.ping(getPingTimeoutInMs(speakerHealth));
+        } catch (RuntimeException e) {
+            logger.debug("Ping of speaker " + speaker + " failed", e);
+            alive = false;
+        }
+        long rttInMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        if (speakerHealth.record(alive, rttInMs, FAILURE_THRESHOLD)) {
+            logger.info("Speaker " + speaker + " is now " + speakerHealth.getLiveness());
+            notifyListeners(speaker, alive);
+        }
+        long nextIntervalInMs = getNextIntervalInMs(speakerHealth);
+        speakerHealth.setIntervalInMs(nextIntervalInMs);
+        schedule(speakerHealth, nextIntervalInMs, epoch);
+    }
+
+    private int getPingTimeoutInMs(SpeakerHealth speakerHealth) {
+        long averageRttInMs = speakerHealth.getAverageRttInMs();
+        if (averageRttInMs == 0 || speakerHealth.getLiveness() != Liveness.ALIVE) {
+            return pingTimeoutInMs;
+        }
+        long timeout = averageRttInMs * 4 + 200;
+        return (int) Math.max(MIN_PING_TIMEOUT_IN_MS, Math.min(pingTimeoutInMs, timeout));
+    }
+
+    private long getNextIntervalInMs(SpeakerHealth speakerHealth) {
+        int failures = speakerHealth.getConsecutiveFailures();
+        long interval;
+        if (failures == 0) {
+            // Speakers close to the ping timeout are likely to drop soon
+            interval = speakerHealth.getAverageRttInMs() > pingTimeoutInMs / 2 ? intervalInMs / 2 : intervalInMs;
+        } else if (failures < FAILURE_THRESHOLD) {
+            // Confirm a single failure quickly
+            interval = MIN_INTERVAL_IN_MS;
+        } else {
+            interval = intervalInMs << Math.min(failures - FAILURE_THRESHOLD, 10);
+        }
+        interval = Math.max(MIN_INTERVAL_IN_MS, Math.min(MAX_INTERVAL_IN_MS, interval));
+        // +-10% jitter, so that speakers do not align again over time
+        long jitter = interval / 10;
+        return interval - jitter + ThreadLocalRandom.current().nextLong(2 * jitter + 1);
+    }
+
+    private void notifyListeners(Speaker speaker, boolean alive) {
+        for (SpeakerLivenessListener listener : listeners) {
+            try {
+                listener.onLivenessChanged(speaker, alive);
+            } catch (RuntimeException e) {
+                logger.error("SpeakerLivenessListener " + listener + " failed to process liveness change", e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,121 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.health;
+
+import de.kaizencode.tchaikovsky.speaker.Speaker;
+
+/**
+ * Health of a single {@link Speaker} as observed by the {@link HealthMonitor}.
+ * 
+ * @author Dominic Lerbs
+ */
+public class SpeakerHealth {
+
+    /**
+     * Liveness of a speaker.
+     */
+    public enum Liveness {
+        /** The speaker has not been checked yet, or failed fewer pings than required to be considered dead */
+        UNKNOWN,
+        /** The speaker replied to the last ping */
+        ALIVE,
+        /** The speaker did not reply to the last pings */
+        DEAD
+    }
+
+    private final Speaker speaker;
+    private Liveness liveness = Liveness.UNKNOWN;
+    private long averageRttInMs = 0;
+    private int consecutiveFailures = 0;
+    private long intervalInMs = 0;
+    private long lastCheckedAt = 0;
+
+    SpeakerHealth(Speaker speaker) {
+        this.speaker = speaker;
+    }
+
+    /**
+     * Records the result of a ping.
+     * 
+     * @param alive
+     *            True if the ping succeeded
+     * @param rttInMs
+     *            Round trip time of the ping
+     * @param failureThreshold
+     *            Number of consecutive failed pings after which the speaker is considered dead
+     * @return True if the liveness of the speaker changed
+     */
+    synchronized boolean record(boolean alive, long rttInMs, int failureThreshold) {
+        lastCheckedAt = System.currentTimeMillis();
+        Liveness previous = liveness;
+        if (alive) {
+            consecutiveFailures = 0;
+            averageRttInMs = averageRttInMs == 0 ? rttInMs : (averageRttInMs * 7 + rttInMs) / 8;
+            liveness = Liveness.ALIVE;
+        } else {
+            consecutiveFailures++;
+            if (consecutiveFailures >= failureThreshold) {
+                liveness = Liveness.DEAD;
+            }
+        }
+        return liveness != previous;
+    }
+
+    synchronized void setIntervalInMs(long intervalInMs) {
+        this.intervalInMs = intervalInMs;
+    }
+
+    public Speaker getSpeaker() {
+        return speaker;
+    }
+
+    public synchronized Liveness getLiveness() {
+        return liveness;
+    }
+
+    /**
+     * @return Moving average of the round trip time of successful pings, or 0 if no ping succeeded yet
+     */
+    public synchronized long getAverageRttInMs() {
+        return averageRttInMs;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /**
+     * @return The current interval between two pings of the speaker
+     */
+    public synchronized long getIntervalInMs() {
+        return intervalInMs;
+    }
+
+    /**
+     * @return Time of the last ping in milliseconds since epoch, or 0 if the speaker has not been checked yet
+     */
+    public synchronized long getLastCheckedAt() {
+        return lastCheckedAt;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return speaker + ": " + liveness + " (rtt " + averageRttInMs + "ms, " + consecutiveFailures
+                + " failures, interval " + intervalInMs + "ms)";
+    }
+
+}
@@ -0,0 +1,43 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.listener;
+
+import de.kaizencode.tchaikovsky.speaker.Speaker;
+
+/**
+ * Listener for errors of coalesced commands, see {@link Speaker#setCoalescingCommands(boolean)}. Coalesced commands
+ * return before the value is applied, so their errors cannot be thrown to the caller.
+ * 
+ * @author Dominic Lerbs
+ */
+public interface CommandErrorListener {
+
+    /**
+     * Called on the executor of the speaker when a coalesced value could not be applied.
+     * 
+     * @param speaker
+     *            The {@link Speaker} the value was sent to
+     * @param command
+     *            Name of the property, e.g. "volume"
+     * @param value
+     *            The value which could not be applied
+     * @param e
+     *            The exception thrown when applying the value
+     */
+    void onCommandFailed(Speaker speaker, String command, Object value, Exception e);
+
+}
@@ -0,0 +1,41 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.listener;
+
+import de.kaizencode.tchaikovsky.speaker.Speaker;
+
+/**
+ * Listener for the playback progress of a {@link Speaker}. The progress is interpolated locally from the last known
+ * play state, so no bus calls are performed for the progress updates.
+ * 
+ * @author Dominic Lerbs
+ */
+public interface PlaybackProgressListener {
+
+    /**
+     * Called periodically while the {@link Speaker} is playing.
+     * 
+     * @param speaker
+     *            The {@link Speaker} which is playing
+     * @param positionInMs
+     *            The current position within the current item in milliseconds
+     * @param durationInMs
+     *            The duration of the current item in milliseconds, or 0 if unknown
+     */
+    void onPlaybackProgress(Speaker speaker, long positionInMs, long durationInMs);
+
+}
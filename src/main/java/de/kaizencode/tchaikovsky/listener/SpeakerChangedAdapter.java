@@ -0,0 +1,68 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.listener;
+
+import java.util.Map;
+
+import de.kaizencode.tchaikovsky.speaker.PlayState;
+import de.kaizencode.tchaikovsky.speaker.Speaker.LoopMode;
+import de.kaizencode.tchaikovsky.speaker.Speaker.ShuffleMode;
+
+/**
+ * Empty implementation of {@link SpeakerChangedListener}, for listeners interested in only some of the events.
+ * 
+ * @author Dominic Lerbs
+ */
+public abstract class SpeakerChangedAdapter implements SpeakerChangedListener {
+
+    @Override
+    public void onLoopModeChanged(LoopMode loopMode) {
+    }
+
+    @Override
+    public void onPlaylistChanged() {
+    }
+
+    @Override
+    public void onPlayStateChanged(PlayState playState) {
+    }
+
+    @Override
+    public void onShuffleModeChanged(ShuffleMode shuffleMode) {
+    }
+
+    @Override
+    public void onVolumeChanged(int volume) {
+    }
+
+    @Override
+    public void onMuteChanged(boolean mute) {
+    }
+
+    @Override
+    public void onVolumeControlChanged(boolean enabled) {
+    }
+
+    @Override
+    public void onZoneChanged(String zoneId, int timestamp, Map<String, Integer> slaves) {
+    }
+
+    @Override
+    public void onInputChanged(String input) {
+    }
+
+}
@@ -0,0 +1,39 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.listener;
+
+import de.kaizencode.tchaikovsky.speaker.Speaker;
+
+/**
+ * Listener for changes of the liveness of a {@link Speaker}, as detected by the
+ * {@link de.kaizencode.tchaikovsky.health.HealthMonitor}.
+ * 
+ * @author Dominic Lerbs
+ */
+public interface SpeakerLivenessListener {
+
+    /**
+     * Called when a {@link Speaker} became reachable or unreachable.
+     * 
+     * @param speaker
+     *            The {@link Speaker} whose liveness changed
+     * @param alive
+     *            True if the speaker is reachable, false if it is not
+     */
+    void onLivenessChanged(Speaker speaker, boolean alive);
+
+}
@@ -0,0 +1,317 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.speaker;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import de.kaizencode.tchaikovsky.concurrent.AsyncCalls;
+import de.kaizencode.tchaikovsky.concurrent.SpeakerCall;
+import de.kaizencode.tchaikovsky.exception.AllPlayException;
+import de.kaizencode.tchaikovsky.speaker.Speaker.LoopMode;
+import de.kaizencode.tchaikovsky.speaker.Speaker.ShuffleMode;
+
+/**
+ * Asynchronous view of a {@link Speaker}. Every operation is executed on the executor of the speaker (see
+ * {@link AsyncCalls}) and returns a {@link CompletableFuture}, which completes with the result of the operation or
+ * exceptionally with the exception thrown by the {@link Speaker}. If a deadline is set using
+ * {@link #withDeadline(long)}, futures of operations not finishing in time complete with a {@link TimeoutException}.
+ * 
+ * @author Dominic Lerbs
+ */
+public class AsyncSpeaker {
+
+    private final Speaker speaker;
+    private final AsyncCalls calls;
+    private final long deadlineInMs;
+
+    /**
+     * Creates an asynchronous view without deadline, running operations on the library-managed executor.
+     * 
+     * @param speaker
+     *            The {@link Speaker} to control
+     */
+    public AsyncSpeaker(Speaker speaker) {
+        this(speaker, AsyncCalls.getDefault().forSpeaker());
+    }
+
+    /**
+     * Creates an asynchronous view without deadline.
+     * 
+     * @param speaker
+     *            The {@link Speaker} to control
+     * @param calls
+     *            The {@link AsyncCalls} of the speaker, running the operations
+     */
+    public AsyncSpeaker(Speaker speaker, AsyncCalls calls) {
+        this(speaker, calls, 0);
+    }
+
+    private AsyncSpeaker(Speaker speaker, AsyncCalls calls, long deadlineInMs) {
+        this.speaker = speaker;
+        this.calls = calls;
+        this.deadlineInMs = deadlineInMs;
+    }
+
+    /**
+     * @param timeoutInMs
+     *            Deadline in milliseconds for each operation, or 0 for no deadline
+     * @return A view of the same {@link Speaker} using the given deadline
+     */
+    public AsyncSpeaker withDeadline(long timeoutInMs) {
+        return new AsyncSpeaker(speaker, calls, timeoutInMs);
+    }
+
+    /**
+     * @return The {@link Speaker} this view belongs to
+     */
+    public Speaker speaker() {
+        return speaker;
+    }
+
+    public CompletableFuture<Void> connect() {
+        return AsyncCalls.withTimeout(speaker.connectAsync(), deadlineInMs);
+    }
+
+    public CompletableFuture<Void> disconnect() {
+        return runVoid(() -> speaker.disconnect());
+    }
+
+    public CompletableFuture<Boolean> ping(int timeoutInMs) {
+        return run(() -> speaker.ping(timeoutInMs));
+    }
+
+    public CompletableFuture<PlayState> getPlayState() {
+        return run(() -> speaker.getPlayState());
+    }
+
+    public CompletableFuture<Long> getCurrentPositionInMs() {
+        return run(() -> speaker.getCurrentPositionInMs());
+    }
+
+    public CompletableFuture<Void> refreshState() {
+        return runVoid(() -> speaker.refreshState());
+    }
+
+    public CompletableFuture<LoopMode> getLoopMode() {
+        return run(() -> speaker.getLoopMode());
+    }
+
+    public CompletableFuture<Void> setLoopMode(LoopMode loopMode) {
+        return runVoid(() -> speaker.setLoopMode(loopMode));
+    }
+
+    public CompletableFuture<ShuffleMode> getShuffleMode() {
+        return run(() -> speaker.getShuffleMode());
+    }
+
+    public CompletableFuture<Void> setShuffleMode(ShuffleMode shuffleMode) {
+        return runVoid(() -> speaker.setShuffleMode(shuffleMode));
+    }
+
+    public CompletableFuture<PlayerInfo> getPlayerInfo() {
+        return run(() -> speaker.getPlayerInfo());
+    }
+
+    public CompletableFuture<SpeakerSnapshot> getSnapshot() {
+        return run(() -> speaker.getSnapshot());
+    }
+
+    public CompletableFuture<Void> play(int itemIndex, long offsetInMs, boolean paused) {
+        return runVoid(() -> speaker.play(itemIndex, offsetInMs, paused));
+    }
+
+    public CompletableFuture<Void> next() {
+        return runVoid(() -> speaker.next());
+    }
+
+    public CompletableFuture<Void> previous() {
+        return runVoid(() -> speaker.previous());
+    }
+
+    public CompletableFuture<Void> forcePrevious() {
+        return runVoid(() -> speaker.forcePrevious());
+    }
+
+    public CompletableFuture<Void> pause() {
+        return runVoid(() -> speaker.pause());
+    }
+
+    public CompletableFuture<Void> resume() {
+        return runVoid(() -> speaker.resume());
+    }
+
+    public CompletableFuture<Void> stop() {
+        return runVoid(() -> speaker.stop());
+    }
+
+    public CompletableFuture<Void> setPosition(long offsetInMs) {
+        return runVoid(() -> speaker.setPosition(offsetInMs));
+    }
+
+    public CompletableFuture<Void> updatePlaylist(List<PlaylistItem> playlistItems, int index,
+            String controllerType, String playlistUserData) {
+        return runVoid(() -> speaker.updatePlaylist(playlistItems, index, controllerType, playlistUserData));
+    }
+
+    public CompletableFuture<Playlist> getPlaylist() {
+        return run(() -> speaker.getPlaylist());
+    }
+
+    public CompletableFuture<List<PlaylistItem>> getPlaylistItems(int fromIndex, int toIndex) {
+        return run(() -> speaker.getPlaylistItems(fromIndex, toIndex));
+    }
+
+    public CompletableFuture<List<PlaylistItem>> getPlaylistItemsAroundCurrent(int before, int after) {
+        return run(() -> speaker.getPlaylistItemsAroundCurrent(before, after));
+    }
+
+    public CompletableFuture<Void> playItem(String url) {
+        return runVoid(() -> speaker.playItem(url));
+    }
+
+    /**
+     * @return Asynchronous view of the {@link Volume} of the speaker
+     */
+    public AsyncVolume volume() {
+        return new AsyncVolume();
+    }
+
+    /**
+     * Executes the given command on the speaker.
+     * 
+     * @param command
+     *            The {@link SpeakerCommand} to execute
+     * @return A {@link CompletableFuture} completing with the result of the command
+     */
+    public <T> CompletableFuture<T> execute(SpeakerCommand<T> command) {
+        return run(() -> command.execute(speaker));
+    }
+
+    /**
+     * @return Asynchronous view of the {@link ZoneManager} of the speaker
+     */
+    public AsyncZoneManager zoneManager() {
+        return new AsyncZoneManager();
+    }
+
+    /**
+     * @return Asynchronous view of the {@link Input} of the speaker
+     */
+    public AsyncInput input() {
+        return new AsyncInput();
+    }
+
+    private <T> CompletableFuture<T> run(SpeakerCall<T> call) {
+        return calls.run(call, deadlineInMs);
+    }
+
+    private CompletableFuture<Void> runVoid(VoidCall call) {
+        return calls.run(() -> {
+            call.call();
+            return null;
+        }, deadlineInMs);
+    }
+
+    private interface VoidCall {
+        void call() throws AllPlayException;
+    }
+
+    /**
+     * Asynchronous view of {@link Volume}.
+     */
+    public class AsyncVolume {
+
+        public CompletableFuture<Integer> getVolume() {
+            return run(() -> speaker.volume().getVolume());
+        }
+
+        public CompletableFuture<Void> setVolume(int volume) {
+            return runVoid(() -> speaker.volume().setVolume(volume));
+        }
+
+        public CompletableFuture<VolumeRange> getVolumeRange() {
+            return run(() -> speaker.volume().getVolumeRange());
+        }
+
+        public CompletableFuture<Boolean> isMute() {
+            return run(() -> speaker.volume().isMute());
+        }
+
+        public CompletableFuture<Void> mute(boolean mute) {
+            return runVoid(() -> speaker.volume().mute(mute));
+        }
+
+        public CompletableFuture<Boolean> isControlEnabled() {
+            return run(() -> speaker.volume().isControlEnabled());
+        }
+
+        public CompletableFuture<Void> adjustVolume(int delta) {
+            return runVoid(() -> speaker.volume().adjustVolume(delta));
+        }
+
+        public CompletableFuture<Void> adjustVolumePercent(double percent) {
+            return runVoid(() -> speaker.volume().adjustVolumePercent(percent));
+        }
+    }
+
+    /**
+     * Asynchronous view of {@link ZoneManager}.
+     */
+    public class AsyncZoneManager {
+
+        public CompletableFuture<Boolean> getEnabled() {
+            return run(() -> speaker.zoneManager().getEnabled());
+        }
+
+        public CompletableFuture<Short> getVersion() {
+            return run(() -> speaker.zoneManager().getVersion());
+        }
+
+        public CompletableFuture<ZoneItem> createZone(List<String> deviceIds) {
+            return run(() -> speaker.zoneManager().createZone(deviceIds));
+        }
+
+        public CompletableFuture<Void> releaseZone() {
+            return runVoid(() -> speaker.zoneManager().releaseZone());
+        }
+    }
+
+    /**
+     * Asynchronous view of {@link Input}.
+     */
+    public class AsyncInput {
+
+        public CompletableFuture<List<String>> getInputList() {
+            return run(() -> speaker.input().getInputList());
+        }
+
+        public CompletableFuture<String> getActiveInput() {
+            return run(() -> speaker.input().getActiveInput());
+        }
+
+        public CompletableFuture<Void> setInput(String input) {
+            return runVoid(() -> speaker.input().setInput(input));
+        }
+
+        public CompletableFuture<Short> getVersion() {
+            return run(() -> speaker.input().getVersion());
+        }
+    }
+
+}
@@ -0,0 +1,151 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.speaker;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Policy for calls to a {@link Speaker}. Reads and writes have separate deadlines after which the call fails with a
+ * {@link de.kaizencode.tchaikovsky.exception.SpeakerTimeoutException}. Reads are idempotent and are retried with
+ * jittered exponential backoff, while writes fail fast and are never retried.
+ * <p>
+ * The {@link #DEFAULT} policy keeps the behaviour of AllJoyn: a 25s reply timeout and no retries. Shorter deadlines,
+ * e.g. of the {@link #FAST_FAIL} policy, have to be enabled explicitly using
+ * {@link Speaker#setCallPolicy(CallPolicy)}.
+ * 
+ * Instances are immutable, use the <code>with...</code> methods to derive a modified policy.
+ * 
+ * @author Dominic Lerbs
+ */
+public class CallPolicy {
+
+    /** Default reply timeout of AllJoyn, which is also used for all property calls */
+    public static final int ALLJOYN_REPLY_TIMEOUT_IN_MS = 25000;
+
+    /** Default policy: AllJoyn reply timeout for reads and writes, no retries */
+    public static final CallPolicy DEFAULT = new CallPolicy(ALLJOYN_REPLY_TIMEOUT_IN_MS, ALLJOYN_REPLY_TIMEOUT_IN_MS, 1,
+            0, 0);
+
+    /** Policy failing fast for unresponsive speakers: 5s per read, 3s per write, up to 3 read attempts */
+    public static final CallPolicy FAST_FAIL = new CallPolicy(5000, 3000, 3, 100, 2000);
+
+    /**
+     * Class of an operation on the speaker.
+     */
+    public enum OperationClass {
+        /** Idempotent operation reading a value from the speaker */
+        READ,
+        /** Operation changing the state of the speaker */
+        WRITE
+    }
+
+    private final int readTimeoutInMs;
+    private final int writeTimeoutInMs;
+    private final int maxReadAttempts;
+    private final long initialBackoffInMs;
+    private final long maxBackoffInMs;
+
+    /**
+     * @param readTimeoutInMs
+     *            Deadline of a single read attempt
+     * @param writeTimeoutInMs
+     *            Deadline of a write
+     * @param maxReadAttempts
+     *            Maximum number of attempts for a read, including the first one
+     * @param initialBackoffInMs
+     *            Maximum backoff before the first retry of a read, doubled with each further retry
+     * @param maxBackoffInMs
+     *            Upper limit of the backoff between retries
+     */
+    public CallPolicy(int readTimeoutInMs, int writeTimeoutInMs, int maxReadAttempts, long initialBackoffInMs,
+            long maxBackoffInMs) {
+        if (readTimeoutInMs <= 0 || writeTimeoutInMs <= 0) {
+            throw new IllegalArgumentException("Timeouts have to be positive");
+        }
+        if (maxReadAttempts < 1) {
+            throw new IllegalArgumentException("At least one read attempt is required");
+        }
+        if (initialBackoffInMs < 0 || maxBackoffInMs < initialBackoffInMs) {
+            throw new IllegalArgumentException("Invalid backoff " + initialBackoffInMs + "ms-" + maxBackoffInMs + "ms");
+        }
+        this.readTimeoutInMs = readTimeoutInMs;
+        this.writeTimeoutInMs = writeTimeoutInMs;
+        this.maxReadAttempts = maxReadAttempts;
+        this.initialBackoffInMs = initialBackoffInMs;
+        this.maxBackoffInMs = maxBackoffInMs;
+    }
+
+    public CallPolicy withReadTimeout(int readTimeoutInMs) {
+        return new CallPolicy(readTimeoutInMs, writeTimeoutInMs, maxReadAttempts, initialBackoffInMs, maxBackoffInMs);
+    }
+
+    public CallPolicy withWriteTimeout(int writeTimeoutInMs) {
+        return new CallPolicy(readTimeoutInMs, writeTimeoutInMs, maxReadAttempts, initialBackoffInMs, maxBackoffInMs);
+    }
+
+    public CallPolicy withMaxReadAttempts(int maxReadAttempts) {
+        return new CallPolicy(readTimeoutInMs, writeTimeoutInMs, maxReadAttempts, initialBackoffInMs, maxBackoffInMs);
+    }
+
+    public CallPolicy withBackoff(long initialBackoffInMs, long maxBackoffInMs) {
+        return new CallPolicy(readTimeoutInMs, writeTimeoutInMs, maxReadAttempts, initialBackoffInMs, maxBackoffInMs);
+    }
+
+    /**
+     * @param operationClass
+     *            The {@link OperationClass}
+     * @return The deadline in milliseconds for a single call of the given class
+     */
+    public int getTimeoutInMs(OperationClass operationClass) {
+        return operationClass == OperationClass.READ ? readTimeoutInMs : writeTimeoutInMs;
+    }
+
+    public int getMaxReadAttempts() {
+        return maxReadAttempts;
+    }
+
+    public long getInitialBackoffInMs() {
+        return initialBackoffInMs;
+    }
+
+    public long getMaxBackoffInMs() {
+        return maxBackoffInMs;
+    }
+
+    /**
+     * Calculates the backoff before the given retry. The backoff is chosen randomly between zero and the exponentially
+     * growing upper limit, so that speakers failing at the same time do not retry at the same time.
+     * 
+     * @param retry
+     *            Number of the retry, starting with 1
+     * @return The backoff in milliseconds
+     */
+    public long getBackoffInMs(int retry) {
+        long limit = initialBackoffInMs << Math.min(retry - 1, 30);
+        if (limit <= 0 || limit > maxBackoffInMs) {
+            limit = maxBackoffInMs;
+        }
+        return limit == 0 ? 0 : ThreadLocalRandom.current().nextLong(limit + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "CallPolicy [read=" + readTimeoutInMs + "ms x" + maxReadAttempts + ", write=" + writeTimeoutInMs
+                + "ms, backoff=" + initialBackoffInMs + "-" + maxBackoffInMs + "ms]";
+    }
+
+}
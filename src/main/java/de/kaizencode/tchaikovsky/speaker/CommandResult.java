@@ -0,0 +1,99 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.speaker;
+
+/**
+ * Result of a {@link SpeakerCommand} executed on a single {@link Speaker}.
+ * 
+ * @author Dominic Lerbs
+ *
+ * @param <T>
+ *            Type of the result of the command
+ */
+public class CommandResult<T> {
+
+    /**
+     * Outcome of a command.
+     */
+    public enum Status {
+        /** The command has been executed successfully */
+        SUCCESS,
+        /** The command failed with an exception */
+        FAILED,
+        /** The command did not finish before the deadline */
+        TIMEOUT
+    }
+
+    private final Status status;
+    private final T value;
+    private final Throwable error;
+
+    private CommandResult(Status status, T value, Throwable error) {
+        this.status = status;
+        this.value = value;
+        this.error = error;
+    }
+
+    public static <T> CommandResult<T> success(T value) {
+        return new CommandResult<>(Status.SUCCESS, value, null);
+    }
+
+    public static <T> CommandResult<T> failed(Throwable error) {
+        return new CommandResult<>(Status.FAILED, null, error);
+    }
+
+    public static <T> CommandResult<T> timeout() {
+        return new CommandResult<>(Status.TIMEOUT, null, null);
+    }
+
+    /**
+     * @return The {@link Status} of the command
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return True if the command has been executed successfully
+     */
+    public boolean isSuccess() {
+        return status == Status.SUCCESS;
+    }
+
+    /**
+     * @return The result of the command, or null if the command did not succeed
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * @return The exception thrown by the command, or null if the command did not fail
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        if (status == Status.FAILED) {
+            return status + ": " + error.getMessage();
+        }
+        return status + (value != null ? ": " + value : "");
+    }
+
+}
@@ -26,10 +26,27 @@ import java.util.List;
 public interface Playlist {
 
     /**
-     * @return All items currently in the {@link Playlist}
+     * @return Read-only view of all items currently in the {@link Playlist}
      */
     List<PlaylistItem> getPlaylistItems();
 
+    /**
+     * Returns a read-only view of a range of the items, without copying them. The range is limited to the items
+     * available.
+     * 
+     * @param fromIndex
+     *            Index of the first item (inclusive)
+     * @param toIndex
+     *            Index after the last item (exclusive)
+     * @return The items in range [fromIndex, toIndex)
+     */
+    List<PlaylistItem> getPlaylistItems(int fromIndex, int toIndex);
+
+    /**
+     * @return Number of items in the {@link Playlist}
+     */
+    int size();
+
     /**
      * @return User-defined type of the controller
      */
@@ -77,7 +77,7 @@ public interface PlaylistItem {
      * returned, which could be any kind of object. The library tries to convert the returned Variant to a Java object.
      * If an unsupported object type is encountered, a {@link SpeakerException} is thrown.
      * 
-     * @return Map containing medium description values
+     * @return Unmodifiable map containing medium description values
      * @throws SpeakerException
      *             Exception if the AllJoyn <code>Variant</code> object cannot be processed
      */
@@ -0,0 +1,260 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.speaker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.kaizencode.tchaikovsky.exception.SpeakerException;
+import de.kaizencode.tchaikovsky.listener.SpeakerChangedAdapter;
+
+/**
+ * Client-side queue for playlists which are too large to be sent to a speaker at once. The complete queue is kept in
+ * this process, and only a window of items around the current item is sent to the speaker. When the speaker reports
+ * that the current item is close to the end (or the start) of the window, the window is moved and sent again.
+ * <p>
+ * Since the speaker only knows the window, loop and shuffle mode of the speaker apply to the window only and should
+ * not be used together with a queue.
+ * 
+ * @author Dominic Lerbs
+ */
+public class PlaylistQueue extends SpeakerChangedAdapter {
+
+    public static final int DEFAULT_WINDOW_SIZE = 50;
+    public static final int DEFAULT_HISTORY_SIZE = 5;
+    public static final int DEFAULT_REFILL_THRESHOLD = 10;
+
+    private final Logger logger = LoggerFactory.getLogger(PlaylistQueue.class);
+
+    private final Speaker speaker;
+    private final List<PlaylistItem> items;
+    private final String controllerType;
+    private final String playlistUserData;
+
+    private int windowSize = DEFAULT_WINDOW_SIZE;
+    private int historySize = DEFAULT_HISTORY_SIZE;
+    private int refillThreshold = DEFAULT_REFILL_THRESHOLD;
+
+    private boolean started = false;
+    private boolean refillPending = false;
+    private int windowOffset = 0;
+    private int windowLength = 0;
+    private int currentIndex = -1;
+    /** Incremented with each window sent, so that the completion of a superseded refill is ignored */
+    private long windowSequence = 0;
+    private final AtomicLong refillCount = new AtomicLong();
+
+    /**
+     * @param speaker
+     *            The {@link Speaker} to play the queue on
+     * @param items
+     *            All items of the queue
+     * @param controllerType
+     *            Controller type (user-defined)
+     * @param playlistUserData
+     *            Custom user data
+     */
+    public PlaylistQueue(Speaker speaker, List<PlaylistItem> items, String controllerType,
+            String playlistUserData) {
+        this.speaker = speaker;
+        this.items = new ArrayList<>(items);
+        this.controllerType = controllerType;
+        this.playlistUserData = playlistUserData;
+    }
+
+    /**
+     * Configures the window sent to the speaker. Takes effect the next time the window is sent.
+     * 
+     * @param windowSize
+     *            Maximum number of items sent to the speaker
+     * @param historySize
+     *            Number of items before the current item kept in the window
+     * @param refillThreshold
+     *            The window is moved when fewer items than this are left after the current item
+     */
+    public synchronized void setWindow(int windowSize, int historySize, int refillThreshold) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size has to be positive");
+        }
+        if (historySize < 0 || historySize >= windowSize) {
+            throw new IllegalArgumentException("History size has to be between 0 and the window size");
+        }
+        if (refillThreshold <= 0 || refillThreshold >= windowSize - historySize) {
+            throw new IllegalArgumentException("Refill threshold has to be positive and smaller than the window size "
+                    + "without history");
+        }
+        this.windowSize = windowSize;
+        this.historySize = historySize;
+        this.refillThreshold = refillThreshold;
+    }
+
+    /**
+     * Sends the window around the given item to the speaker and starts following its play state.
+     * 
+     * @param queueIndex
+     *            Index of the current item in the queue
+     * @throws SpeakerException
+     *             if the window could not be sent to the speaker
+     */
+    public void load(int queueIndex) throws SpeakerException {
+        if (queueIndex < 0 || queueIndex >= items.size()) {
+            throw new IndexOutOfBoundsException("Index " + queueIndex + " is not in queue of size " + items.size());
+        }
+        List<PlaylistItem> window;
+        int offset;
+        synchronized (this) {
+            offset = getWindowStart(queueIndex);
+            window = getWindow(offset);
+            windowOffset = offset;
+            windowLength = window.size();
+            currentIndex = queueIndex;
+            refillPending = false;
+            windowSequence++;
+            if (!started) {
+                started = true;
+                speaker.addSpeakerChangedListener(this);
+            }
+        }
+        speaker.updatePlaylist(window, queueIndex - offset, controllerType, playlistUserData);
+    }
+
+    /**
+     * Sends the window around the given item to the speaker and starts playing the item.
+     * 
+     * @param queueIndex
+     *            Index of the item in the queue to play
+     * @throws SpeakerException
+     *             if the window could not be sent or the item cannot be played
+     */
+    public void play(int queueIndex) throws SpeakerException {
+        load(queueIndex);
+        int windowIndex;
+        synchronized (this) {
+            windowIndex = queueIndex - windowOffset;
+        }
+        speaker.play(windowIndex, 0, false);
+    }
+
+    /**
+     * Stops following the play state of the speaker. The items already sent remain on the speaker.
+     */
+    public void stop() {
+        synchronized (this) {
+            if (!started) {
+                return;
+            }
+            started = false;
+        }
+        speaker.removeSpeakerChangedListener(this);
+    }
+
+    /**
+     * @return Read-only view of all items of the queue
+     */
+    public List<PlaylistItem> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+
+    /**
+     * @return Index of the current item in the queue, or -1 if the queue has not been loaded
+     */
+    public synchronized int getCurrentIndex() {
+        return currentIndex;
+    }
+
+    /**
+     * @return Index in the queue of the first item sent to the speaker
+     */
+    public synchronized int getWindowOffset() {
+        return windowOffset;
+    }
+
+    /**
+     * @return Number of times the window has been moved
+     */
+    public long getRefillCount() {
+        return refillCount.get();
+    }
+
+    @Override
+    public void onPlayStateChanged(PlayState playState) {
+        List<PlaylistItem> window;
+        int offset;
+        int windowIndex;
+        long sequence;
+        synchronized (this) {
+            int reportedIndex = playState.getIndexCurrentItem();
+            if (!started || refillPending || reportedIndex < 0 || reportedIndex >= windowLength) {
+                return;
+            }
+            currentIndex = windowOffset + reportedIndex;
+            if (!needsRefill(reportedIndex)) {
+                return;
+            }
+            offset = getWindowStart(currentIndex);
+            if (offset == windowOffset) {
+                return;
+            }
+            window = getWindow(offset);
+            windowIndex = currentIndex - offset;
+            refillPending = true;
+            sequence = ++windowSequence;
+        }
+        logger.debug("Moving playlist window of speaker " + speaker + " to offset " + offset);
+        // Called from the signal handler, so the update must not block
+        speaker.async().updatePlaylist(window, windowIndex, controllerType, playlistUserData)
+                .whenComplete((result, e) -> onRefillCompleted(sequence, offset, window.size(), e));
+    }
+
+    private synchronized void onRefillCompleted(long sequence, int offset, int length, Throwable e) {
+        if (sequence != windowSequence) {
+            // The window has been replaced by a later load in the meantime
+            logger.debug("Ignoring superseded playlist window of speaker " + speaker + " at offset " + offset);
+            return;
+        }
+        refillPending = false;
+        if (e != null) {
+            logger.warn("Unable to move playlist window of speaker " + speaker, e);
+            return;
+        }
+        windowOffset = offset;
+        windowLength = length;
+        refillCount.incrementAndGet();
+    }
+
+    private boolean needsRefill(int windowIndex) {
+        boolean moreAhead = windowOffset + windowLength < items.size();
+        boolean fewAhead = windowLength - 1 - windowIndex < refillThreshold;
+        boolean fewBehind = windowOffset > 0 && windowIndex < historySize;
+        return (moreAhead && fewAhead) || fewBehind;
+    }
+
+    private int getWindowStart(int queueIndex) {
+        int maxStart = Math.max(0, items.size() - windowSize);
+        return Math.min(Math.max(0, queueIndex - historySize), maxStart);
+    }
+
+    private List<PlaylistItem> getWindow(int offset) {
+        return new ArrayList<>(items.subList(offset, Math.min(items.size(), offset + windowSize)));
+    }
+
+}
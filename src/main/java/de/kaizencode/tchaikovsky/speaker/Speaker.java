@@ -17,9 +17,13 @@
 package de.kaizencode.tchaikovsky.speaker;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import de.kaizencode.tchaikovsky.bus.CircuitBreaker;
 import de.kaizencode.tchaikovsky.exception.ConnectionException;
 import de.kaizencode.tchaikovsky.exception.SpeakerException;
+import de.kaizencode.tchaikovsky.listener.CommandErrorListener;
+import de.kaizencode.tchaikovsky.listener.PlaybackProgressListener;
 import de.kaizencode.tchaikovsky.listener.SpeakerChangedListener;
 import de.kaizencode.tchaikovsky.listener.SpeakerConnectionListener;
 
@@ -93,6 +97,32 @@ public interface Speaker {
      */
     boolean isConnected();
 
+    /**
+     * Connects to the speaker without blocking the calling thread. The session is joined asynchronously, the
+     * remaining setup is performed on the executor of the speaker, see
+     * {@link de.kaizencode.tchaikovsky.concurrent.AsyncCalls}.
+     * 
+     * @return Future completing once the speaker is connected, or with a {@link ConnectionException} if the
+     *         connection could not be established
+     */
+    CompletableFuture<Void> connectAsync();
+
+    /**
+     * Enables or disables automatic reconnection. If enabled, the session is rejoined in the background after it has
+     * been lost, with exponentially growing delays between attempts. Once reconnected, all state changes missed in the
+     * meantime are reported to the {@link SpeakerChangedListener}s. An explicit {@link #disconnect()} cancels pending
+     * attempts.
+     * 
+     * @param enabled
+     *            True to reconnect automatically, false to only mark the speaker as disconnected (default)
+     */
+    void setAutoReconnect(boolean enabled);
+
+    /**
+     * @return True if the speaker reconnects automatically after the session has been lost
+     */
+    boolean isAutoReconnect();
+
     /**
      * Pings the speaker.
      * 
@@ -111,6 +141,32 @@ public interface Speaker {
      */
     void setSessionTimeout(int timeoutInSec);
 
+    /**
+     * Enables the local state cache. While enabled, the {@link PlayState}, {@link LoopMode}, {@link ShuffleMode}, the
+     * volume, mute and volume control state as well as the active input are kept up to date by the signals of the
+     * speaker, and the corresponding getters are served from memory instead of performing a bus call. The cache is
+     * seeded on {@link #connect()}. Note that the position of a cached {@link PlayState} is only updated when the
+     * speaker sends a new state.
+     * 
+     * @param maxAgeInMs
+     *            Maximum age in milliseconds of a cached value before it is read from the speaker again
+     */
+    void enableStateCache(long maxAgeInMs);
+
+    /**
+     * Disables the local state cache. All getters perform a bus call again.
+     */
+    void disableStateCache();
+
+    /**
+     * Reads all cached values from the speaker, regardless of their age. Only has an effect if the state cache is
+     * enabled using {@link #enableStateCache(long)}.
+     * 
+     * @throws SpeakerException
+     *             if the state could not be retrieved
+     */
+    void refreshState() throws SpeakerException;
+
     /**
      * @return Current {@link PlayState} of the speaker
      * @throws SpeakerException
@@ -118,6 +174,35 @@ public interface Speaker {
      */
     PlayState getPlayState() throws SpeakerException;
 
+    /**
+     * Returns the current playback position, interpolated locally from the last known {@link PlayState} and the time
+     * elapsed since it has been received. The position is only advanced while the speaker is playing and is reset by
+     * every new {@link PlayState}, e.g. on pause, seek or track change. A bus call is only performed if no
+     * {@link PlayState} is known yet.
+     * 
+     * @return Current position within the current item in milliseconds
+     * @throws SpeakerException
+     *             if no {@link PlayState} is known and it cannot be retrieved
+     */
+    long getCurrentPositionInMs() throws SpeakerException;
+
+    /**
+     * Adds a listener which is periodically informed about the playback progress while the speaker is playing. The
+     * progress is interpolated locally, see {@link #getCurrentPositionInMs()}.
+     * 
+     * @param listener
+     *            The {@link PlaybackProgressListener} to add
+     * @param intervalInMs
+     *            The interval in milliseconds between two progress updates
+     */
+    void addPlaybackProgressListener(PlaybackProgressListener listener, long intervalInMs);
+
+    /**
+     * @param listener
+     *            The {@link PlaybackProgressListener} to remove
+     */
+    void removePlaybackProgressListener(PlaybackProgressListener listener);
+
     /**
      * @return Current {@link LoopMode} of the speaker
      * @throws SpeakerException
@@ -155,6 +240,17 @@ public interface Speaker {
      */
     PlayerInfo getPlayerInfo() throws SpeakerException;
 
+    /**
+     * Retrieves the complete state of the speaker. All properties of an interface are read with a single call, and
+     * the media player, volume and input selector interfaces are read in parallel, so this is much faster than reading
+     * the properties one by one.
+     * 
+     * @return {@link SpeakerSnapshot} of the current state
+     * @throws SpeakerException
+     *             if the state cannot be retrieved
+     */
+    SpeakerSnapshot getSnapshot() throws SpeakerException;
+
     /**
      * Plays the item at the given index in the playlist.
      * 
@@ -252,6 +348,43 @@ public interface Speaker {
      */
     Playlist getPlaylist() throws SpeakerException;
 
+    /**
+     * Returns a read-only view of a range of the {@link Playlist}, without copying the items. The range is limited to
+     * the items available.
+     * 
+     * @param fromIndex
+     *            Index of the first item (inclusive)
+     * @param toIndex
+     *            Index after the last item (exclusive)
+     * @return The items in range [fromIndex, toIndex)
+     * @throws SpeakerException
+     *             if the {@link Playlist} could not be retrieved
+     */
+    List<PlaylistItem> getPlaylistItems(int fromIndex, int toIndex) throws SpeakerException;
+
+    /**
+     * Returns a read-only view of the items around the current item of the {@link Playlist}, as given by
+     * {@link PlayState#getIndexCurrentItem()}.
+     * 
+     * @param before
+     *            Number of items before the current item
+     * @param after
+     *            Number of items after the current item
+     * @return The current item with up to the given number of items before and after it
+     * @throws SpeakerException
+     *             if the {@link Playlist} or {@link PlayState} could not be retrieved
+     */
+    List<PlaylistItem> getPlaylistItemsAroundCurrent(int before, int after) throws SpeakerException;
+
+    /**
+     * Enables or disables the playlist cache. If enabled (default), the {@link Playlist} is read once and kept until
+     * the speaker signals that it has changed.
+     * 
+     * @param enabled
+     *            True to enable the playlist cache
+     */
+    void setPlaylistCacheEnabled(boolean enabled);
+
     /**
      * Plays the item at the given URL.
      * 
@@ -262,6 +395,57 @@ public interface Speaker {
      */
     void playItem(String url) throws SpeakerException;
 
+    /**
+     * Enables or disables coalescing of idempotent setters. If enabled, {@link Volume#setVolume(int)},
+     * {@link Volume#mute(boolean)}, {@link #setPosition(long)}, {@link #setLoopMode(LoopMode)} and
+     * {@link #setShuffleMode(ShuffleMode)} return immediately and the value is applied asynchronously. At most one call
+     * per property is in flight, and values submitted in the meantime are replaced by newer ones, so that only the
+     * latest value is guaranteed to be applied. Errors are logged and reported to the {@link CommandErrorListener}
+     * instead of being thrown. This is useful e.g. for volume sliders, which produce many values in a short time.
+     * 
+     * @param enabled
+     *            True to enable coalescing, false to apply each value synchronously (default)
+     */
+    void setCoalescingCommands(boolean enabled);
+
+    /**
+     * Sets the listener informed about coalesced values which could not be applied, see
+     * {@link #setCoalescingCommands(boolean)}.
+     * 
+     * @param listener
+     *            The {@link CommandErrorListener} to inform, or null to only log errors
+     */
+    void setCommandErrorListener(CommandErrorListener listener);
+
+    /**
+     * Sets the {@link CallPolicy} for all calls to the speaker, including calls through {@link #volume()},
+     * {@link #zoneManager()} and {@link #input()}. Calls exceeding the deadline of the policy fail with a
+     * {@link de.kaizencode.tchaikovsky.exception.SpeakerTimeoutException}. AllJoyn applies reply timeouts only to
+     * method calls, property reads and writes always wait up to {@link CallPolicy#ALLJOYN_REPLY_TIMEOUT_IN_MS}. For
+     * deadlines shorter than that, calls are therefore run on the executor of the speaker and abandoned once the
+     * deadline has passed, while their thread stays blocked until AllJoyn gives up.
+     * 
+     * @param policy
+     *            The {@link CallPolicy} to use, {@link CallPolicy#DEFAULT} if not set
+     */
+    void setCallPolicy(CallPolicy policy);
+
+    /**
+     * @return The {@link CallPolicy} currently in use
+     */
+    CallPolicy getCallPolicy();
+
+    /**
+     * @return The {@link CircuitBreaker} of the speaker. Its state shows whether calls are currently passed to the
+     *         speaker or rejected because the speaker is unreachable.
+     */
+    CircuitBreaker circuitBreaker();
+
+    /**
+     * @return An {@link AsyncSpeaker} view of this speaker, returning futures for all operations
+     */
+    AsyncSpeaker async();
+
     /**
      * @return The {@link Volume} of the speaker.
      */
@@ -0,0 +1,251 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.speaker;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.kaizencode.tchaikovsky.bus.CircuitBreaker;
+
+/**
+ * A group of {@link Speaker}s on which commands are executed in parallel. The number of commands running at the same
+ * time is limited by the parallelism of the group, and all commands have to finish within the deadline of the group.
+ * Commands which did not finish in time are reported as {@link CommandResult.Status#TIMEOUT}, so a single hung
+ * speaker does not delay the result for the other speakers. Commands run on the executor share of their speaker (see
+ * {@link Speaker#async()}), so calls of a hung speaker which cannot be interrupted do not occupy the threads of other
+ * speakers.
+ * 
+ * @author Dominic Lerbs
+ */
+public class SpeakerGroup {
+
+    private final Logger logger = LoggerFactory.getLogger(SpeakerGroup.class);
+
+    /** Default number of commands running at the same time */
+    public static final int DEFAULT_PARALLELISM = 16;
+    /** Default deadline for executing a command on all speakers */
+    public static final long DEFAULT_DEADLINE_IN_MS = 10000;
+
+    private final List<Speaker> speakers;
+    private final int parallelism;
+    private final long deadlineInMs;
+
+    /**
+     * Creates a group with default parallelism and deadline.
+     * 
+     * @param speakers
+     *            The {@link Speaker}s of the group
+     */
+    public SpeakerGroup(Collection<? extends Speaker> speakers) {
+        this(speakers, DEFAULT_PARALLELISM, DEFAULT_DEADLINE_IN_MS);
+    }
+
+    /**
+     * @param speakers
+     *            The {@link Speaker}s of the group, a speaker contained more than once is only added once
+     * @param parallelism
+     *            Maximum number of commands running at the same time
+     * @param deadlineInMs
+     *            Time in milliseconds after which commands which have not finished are reported as timed out
+     */
+    public SpeakerGroup(Collection<? extends Speaker> speakers, int parallelism, long deadlineInMs) {
+        if (parallelism < 1 || deadlineInMs <= 0) {
+            throw new IllegalArgumentException("Parallelism and deadline have to be positive");
+        }
+        this.speakers = Collections.unmodifiableList(new ArrayList<Speaker>(new LinkedHashSet<Speaker>(speakers)));
+        this.parallelism = parallelism;
+        this.deadlineInMs = deadlineInMs;
+    }
+
+    /**
+     * @param parallelism
+     *            Maximum number of commands running at the same time
+     * @return A group of the same speakers with the given parallelism
+     */
+    public SpeakerGroup withParallelism(int parallelism) {
+        return new SpeakerGroup(speakers, parallelism, deadlineInMs);
+    }
+
+    /**
+     * @param deadlineInMs
+     *            Time in milliseconds after which commands which have not finished are reported as timed out
+     * @return A group of the same speakers with the given deadline
+     */
+    public SpeakerGroup withDeadline(long deadlineInMs) {
+        return new SpeakerGroup(speakers, parallelism, deadlineInMs);
+    }
+
+    /**
+     * @return The {@link Speaker}s of the group
+     */
+    public List<Speaker> getSpeakers() {
+        return speakers;
+    }
+
+    /**
+     * @return A group of the same configuration, containing only those speakers whose circuit breaker is not open
+     */
+    public SpeakerGroup available() {
+        List<Speaker> availableSpeakers = new ArrayList<>();
+        for (Speaker speaker : speakers) {
+            if (speaker.circuitBreaker().getState() != CircuitBreaker.State.OPEN) {
+                availableSpeakers.add(speaker);
+            }
+        }
+        return new SpeakerGroup(availableSpeakers, parallelism, deadlineInMs);
+    }
+
+    /**
+     * Executes the given command on all speakers of the group and waits until all commands have finished or the
+     * deadline has passed.
+     * 
+     * @param command
+     *            The {@link SpeakerCommand} to execute
+     * @return The {@link CommandResult} per speaker, in the order of the speakers of the group
+     */
+    public <T> Map<Speaker, CommandResult<T>> execute(SpeakerCommand<T> command) {
+        return new Execution<>(command).run();
+    }
+
+    public Map<Speaker, CommandResult<Void>> pause() {
+        return execute(speaker -> {
+            speaker.pause();
+            return null;
+        });
+    }
+
+    public Map<Speaker, CommandResult<Void>> resume() {
+        return execute(speaker -> {
+            speaker.resume();
+            return null;
+        });
+    }
+
+    public Map<Speaker, CommandResult<Void>> stop() {
+        return execute(speaker -> {
+            speaker.stop();
+            return null;
+        });
+    }
+
+    public Map<Speaker, CommandResult<Void>> setVolume(int volume) {
+        return execute(speaker -> {
+            speaker.volume().setVolume(volume);
+            return null;
+        });
+    }
+
+    public Map<Speaker, CommandResult<Void>> mute(boolean mute) {
+        return execute(speaker -> {
+            speaker.volume().mute(mute);
+            return null;
+        });
+    }
+
+    public Map<Speaker, CommandResult<Boolean>> ping(int timeoutInMs) {
+        return execute(speaker -> speaker.ping(timeoutInMs));
+    }
+
+    /**
+     * A single execution of a command on all speakers of the group.
+     */
+    private class Execution<T> {
+
+        private final SpeakerCommand<T> command;
+        private final Queue<Speaker> pending = new ConcurrentLinkedQueue<>(speakers);
+        private final ConcurrentMap<Speaker, CommandResult<T>> results = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Speaker, CompletableFuture<T>> running = new ConcurrentHashMap<>();
+        private final CountDownLatch finished = new CountDownLatch(speakers.size());
+        private final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineInMs);
+        private volatile boolean expired = false;
+
+        Execution(SpeakerCommand<T> command) {
+            this.command = command;
+        }
+
+        Map<Speaker, CommandResult<T>> run() {
+            for (int i = 0; i < Math.min(parallelism, speakers.size()); i++) {
+                startNext();
+            }
+            try {
+                finished.await(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            expired = true;
+
+            Map<Speaker, CommandResult<T>> orderedResults = new LinkedHashMap<>();
+            for (Speaker speaker : speakers) {
+                CommandResult<T> result = results.putIfAbsent(speaker, CommandResult.<T> timeout());
+                if (result == null) {
+                    result = CommandResult.timeout();
+                    CompletableFuture<T> future = running.get(speaker);
+                    if (future != null) {
+                        future.cancel(true);
+                    }
+                    logger.debug("Command on speaker " + speaker + " did not finish within " + deadlineInMs + "ms");
+                }
+                orderedResults.put(speaker, result);
+            }
+            return orderedResults;
+        }
+
+        private void startNext() {
+            Speaker speaker = pending.poll();
+            if (speaker == null || expired || System.nanoTime() - deadline > 0) {
+                return;
+            }
+            CompletableFuture<T> future;
+            try {
+                future = speaker.async().execute(command);
+            } catch (RuntimeException e) {
+                finish(speaker, null, e);
+                return;
+            }
+            // Registered after the future has been stored, so that an already completed future is removed again
+            running.put(speaker, future);
+            future.whenComplete((value, error) -> finish(speaker, value, error));
+        }
+
+        private void finish(Speaker speaker, T value, Throwable error) {
+            if (error != null) {
+                results.putIfAbsent(speaker, CommandResult.<T> failed(error));
+            } else {
+                results.putIfAbsent(speaker, CommandResult.success(value));
+            }
+            running.remove(speaker);
+            finished.countDown();
+            startNext();
+        }
+    }
+
+}
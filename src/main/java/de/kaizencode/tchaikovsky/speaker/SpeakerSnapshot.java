@@ -0,0 +1,107 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.speaker;
+
+import java.util.Collections;
+import java.util.List;
+
+import de.kaizencode.tchaikovsky.speaker.Speaker.LoopMode;
+import de.kaizencode.tchaikovsky.speaker.Speaker.ShuffleMode;
+
+/**
+ * Immutable snapshot of the state of a {@link Speaker}, retrieved with {@link Speaker#getSnapshot()}.
+ * 
+ * @author Dominic Lerbs
+ */
+public final class SpeakerSnapshot {
+
+    private final long timestamp;
+    private final PlayState playState;
+    private final LoopMode loopMode;
+    private final ShuffleMode shuffleMode;
+    private final int volume;
+    private final boolean mute;
+    private final boolean volumeControlEnabled;
+    private final String activeInput;
+    private final List<String> inputList;
+
+    public SpeakerSnapshot(PlayState playState, LoopMode loopMode, ShuffleMode shuffleMode, int volume, boolean mute,
+            boolean volumeControlEnabled, String activeInput, List<String> inputList) {
+        this.timestamp = System.currentTimeMillis();
+        this.playState = playState;
+        this.loopMode = loopMode;
+        this.shuffleMode = shuffleMode;
+        this.volume = volume;
+        this.mute = mute;
+        this.volumeControlEnabled = volumeControlEnabled;
+        this.activeInput = activeInput;
+        this.inputList = Collections.unmodifiableList(inputList);
+    }
+
+    /**
+     * @return Time the snapshot has been taken in milliseconds since epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public PlayState getPlayState() {
+        return playState;
+    }
+
+    public LoopMode getLoopMode() {
+        return loopMode;
+    }
+
+    public ShuffleMode getShuffleMode() {
+        return shuffleMode;
+    }
+
+    public int getVolume() {
+        return volume;
+    }
+
+    public boolean isMute() {
+        return mute;
+    }
+
+    public boolean isVolumeControlEnabled() {
+        return volumeControlEnabled;
+    }
+
+    /**
+     * @return The active input, or null if the speaker does not support input selection
+     */
+    public String getActiveInput() {
+        return activeInput;
+    }
+
+    /**
+     * @return The available inputs, empty if the speaker does not support input selection
+     */
+    public List<String> getInputList() {
+        return inputList;
+    }
+
+    @Override
+    public String toString() {
+        return "SpeakerSnapshot [playState=" + playState + ", loopMode=" + loopMode + ", shuffleMode=" + shuffleMode
+                + ", volume=" + volume + ", mute=" + mute + ", volumeControlEnabled=" + volumeControlEnabled
+                + ", activeInput=" + activeInput + ", inputList=" + inputList + "]";
+    }
+
+}
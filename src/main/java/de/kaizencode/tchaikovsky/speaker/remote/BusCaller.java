@@ -0,0 +1,307 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.speaker.remote;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import org.alljoyn.bus.BusException;
+import org.alljoyn.bus.ErrorReplyBusException;
+import org.alljoyn.bus.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.kaizencode.tchaikovsky.bus.CircuitBreaker;
+import de.kaizencode.tchaikovsky.concurrent.AsyncCalls;
+import de.kaizencode.tchaikovsky.concurrent.SingleFlight;
+import de.kaizencode.tchaikovsky.exception.AllPlayException;
+import de.kaizencode.tchaikovsky.exception.SpeakerException;
+import de.kaizencode.tchaikovsky.exception.SpeakerTimeoutException;
+import de.kaizencode.tchaikovsky.exception.SpeakerUnavailableException;
+import de.kaizencode.tchaikovsky.speaker.CallPolicy;
+import de.kaizencode.tchaikovsky.speaker.CallPolicy.OperationClass;
+
+/**
+ * Executes bus calls according to a {@link CallPolicy}. Reads are retried with jittered exponential backoff, writes
+ * are executed exactly once. Timeouts are reported as {@link SpeakerTimeoutException}. The deadlines of the policy are
+ * applied as reply timeouts of the proxy bus objects by {@link RemoteSpeaker}, which AllJoyn only uses for method
+ * calls. If the deadline is shorter than the AllJoyn reply timeout and {@link AsyncCalls} are given, each call is
+ * therefore run asynchronously and abandoned once the deadline has passed, which also covers property calls. If a
+ * {@link CircuitBreaker} is given, calls are rejected with a {@link SpeakerUnavailableException} while its circuit is
+ * open.
+ * 
+ * @author Dominic Lerbs
+ */
+class BusCaller {
+
+    private final Logger logger = LoggerFactory.getLogger(BusCaller.class);
+
+    /**
+     * A single call on a bus interface.
+     */
+    interface BusCall<T> {
+        T call() throws BusException;
+    }
+
+    /**
+     * A single call on a bus interface without result.
+     */
+    interface VoidBusCall {
+        void call() throws BusException;
+    }
+
+    private final CircuitBreaker circuitBreaker;
+    private final AsyncCalls deadlineCalls;
+    private final SingleFlight<String> sharedReads = new SingleFlight<>();
+    private volatile CallPolicy policy = CallPolicy.DEFAULT;
+
+    BusCaller() {
+        this(null, null);
+    }
+
+    /**
+     * @param circuitBreaker
+     *            The {@link CircuitBreaker} of the speaker, or null to pass all calls to the bus
+     * @param deadlineCalls
+     *            The {@link AsyncCalls} running calls with a deadline shorter than the AllJoyn reply timeout, or null
+     *            to rely on the reply timeout of the proxy bus objects only
+     */
+    BusCaller(CircuitBreaker circuitBreaker, AsyncCalls deadlineCalls) {
+        this.circuitBreaker = circuitBreaker;
+        this.deadlineCalls = deadlineCalls;
+    }
+
+    public CallPolicy getPolicy() {
+        return policy;
+    }
+
+    public void setPolicy(CallPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Executes an idempotent read, retrying it according to the policy.
+     * 
+     * @param errorMessage
+     *            Message of the {@link SpeakerException} if the read fails
+     * @param call
+     *            The read
+     * @return The result of the read
+     * @throws SpeakerException
+     *             If all attempts failed
+     */
+    public <T> T read(String errorMessage, BusCall<T> call) throws SpeakerException {
+        CallPolicy currentPolicy = policy;
+        for (int attempt = 1;; attempt++) {
+            try {
+                return invoke(errorMessage, call, currentPolicy.getTimeoutInMs(OperationClass.READ));
+            } catch (BusException e) {
+                if (attempt >= currentPolicy.getMaxReadAttempts() || !isRetryable(e)) {
+                    throw toSpeakerException(errorMessage, e);
+                }
+                long backoffInMs = currentPolicy.getBackoffInMs(attempt);
+                logger.debug(errorMessage + " (attempt " + attempt + "), retrying in " + backoffInMs + "ms: "
+                        + e.getMessage());
+                sleep(errorMessage, backoffInMs);
+            }
+        }
+    }
+
+    /**
+     * Executes an idempotent read like {@link #read(String, BusCall)}, but concurrent reads with the same key share a
+     * single call and its result. Reads never join a read which has been started before a write through this caller,
+     * so that they do not return a value from before the write.
+     * 
+     * @param key
+     *            Key identifying identical reads, unique per speaker
+     * @param errorMessage
+     *            Message of the {@link SpeakerException} if the read fails
+     * @param call
+     *            The read
+     * @return The result of the read
+     * @throws SpeakerException
+     *             If all attempts failed
+     */
+    public <T> T readShared(String key, String errorMessage, BusCall<T> call) throws SpeakerException {
+        try {
+            return sharedReads.execute(key, () -> read(errorMessage, call));
+        } catch (SpeakerException e) {
+            throw e;
+        } catch (AllPlayException e) {
+            throw new SpeakerException(errorMessage, e);
+        }
+    }
+
+    /**
+     * @return Number of shared reads which have actually been sent to the speaker
+     */
+    public long getExecutedReadCount() {
+        return sharedReads.getExecutedCount();
+    }
+
+    /**
+     * @return Number of shared reads which joined an identical read in flight
+     */
+    public long getCollapsedReadCount() {
+        return sharedReads.getCollapsedCount();
+    }
+
+    /**
+     * Executes a write exactly once.
+     * 
+     * @param errorMessage
+     *            Message of the {@link SpeakerException} if the write fails
+     * @param call
+     *            The write
+     * @return The result of the write
+     * @throws SpeakerException
+     *             If the write failed
+     */
+    public <T> T write(String errorMessage, BusCall<T> call) throws SpeakerException {
+        // Reads started before or during the write might return the old value
+        sharedReads.forgetAll();
+        try {
+            return invoke(errorMessage, call, policy.getTimeoutInMs(OperationClass.WRITE));
+        } catch (BusException e) {
+            throw toSpeakerException(errorMessage, e);
+        } finally {
+            sharedReads.forgetAll();
+        }
+    }
+
+    /**
+     * Executes a write without result exactly once.
+     * 
+     * @param errorMessage
+     *            Message of the {@link SpeakerException} if the write fails
+     * @param call
+     *            The write
+     * @throws SpeakerException
+     *             If the write failed
+     */
+    public void write(String errorMessage, VoidBusCall call) throws SpeakerException {
+        write(errorMessage, () -> {
+            call.call();
+            return null;
+        });
+    }
+
+    private <T> T invoke(String errorMessage, BusCall<T> call, int timeoutInMs) throws SpeakerException, BusException {
+        if (circuitBreaker == null) {
+            return callWithDeadline(call, timeoutInMs);
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            throw new SpeakerUnavailableException(errorMessage + " (circuit " + circuitBreaker.getState() + ")");
+        }
+        boolean recorded = false;
+        try {
+            T result = callWithDeadline(call, timeoutInMs);
+            recorded = true;
+            circuitBreaker.recordSuccess();
+            return result;
+        } catch (BusException e) {
+            recorded = true;
+            if (isErrorReply(e)) {
+                // The speaker replied, so it is reachable
+                circuitBreaker.recordSuccess();
+            } else {
+                circuitBreaker.recordFailure();
+            }
+            throw e;
+        } finally {
+            if (!recorded) {
+                // A half-open circuit has to be released even if the trial call failed with any other exception
+                circuitBreaker.recordAbandoned();
+            }
+        }
+    }
+
+    private <T> T callWithDeadline(BusCall<T> call, int timeoutInMs) throws SpeakerException, BusException {
+        if (deadlineCalls == null || timeoutInMs >= CallPolicy.ALLJOYN_REPLY_TIMEOUT_IN_MS) {
+            return call.call();
+        }
+        CompletableFuture<T> future = deadlineCalls.runNested(() -> {
+            try {
+                return call.call();
+            } catch (BusException e) {
+                throw new CompletionException(e);
+            }
+        }, timeoutInMs);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new SpeakerException("Interrupted while waiting for reply", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CompletionException && cause.getCause() instanceof BusException) {
+                throw (BusException) cause.getCause();
+            } else if (cause instanceof TimeoutException) {
+                throw new BusException("ER_TIMEOUT: No reply within " + timeoutInMs + "ms", cause);
+            } else if (cause instanceof SpeakerException) {
+                throw (SpeakerException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SpeakerException("Bus call failed", cause);
+        }
+    }
+
+    /**
+     * @param e
+     *            The {@link BusException} thrown by a call
+     * @return True if the call did not get a reply in time
+     */
+    static boolean isTimeout(BusException e) {
+        if (e instanceof ErrorReplyBusException) {
+            Status status = ((ErrorReplyBusException) e).getErrorStatus();
+            if (status == Status.TIMEOUT) {
+                return true;
+            }
+        }
+        return e.getMessage() != null && e.getMessage().contains("ER_TIMEOUT");
+    }
+
+    private boolean isRetryable(BusException e) {
+        // Error replies sent by the speaker itself (e.g. unsupported method) will not change on retry
+        return !isErrorReply(e);
+    }
+
+    private static boolean isErrorReply(BusException e) {
+        return e instanceof ErrorReplyBusException && ((ErrorReplyBusException) e).getErrorName() != null;
+    }
+
+    private SpeakerException toSpeakerException(String errorMessage, BusException e) {
+        if (isTimeout(e)) {
+            return new SpeakerTimeoutException(errorMessage + " (timed out)", e);
+        }
+        return new SpeakerException(errorMessage, e);
+    }
+
+    private void sleep(String errorMessage, long backoffInMs) throws SpeakerException {
+        try {
+            Thread.sleep(backoffInMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SpeakerException(errorMessage + " (interrupted)", e);
+        }
+    }
+
+}
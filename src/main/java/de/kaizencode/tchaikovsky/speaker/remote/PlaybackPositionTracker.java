@@ -0,0 +1,194 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.speaker.remote;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.kaizencode.tchaikovsky.concurrent.NamedThreadFactory;
+import de.kaizencode.tchaikovsky.listener.PlaybackProgressListener;
+import de.kaizencode.tchaikovsky.listener.SpeakerChangedAdapter;
+import de.kaizencode.tchaikovsky.speaker.PlayState;
+import de.kaizencode.tchaikovsky.speaker.PlayState.State;
+import de.kaizencode.tchaikovsky.speaker.PlaylistItem;
+import de.kaizencode.tchaikovsky.speaker.Speaker;
+
+/**
+ * Tracks the playback position of a speaker locally. The position is taken from the last received {@link PlayState}
+ * and advanced by the monotonic time elapsed since then, as long as the speaker is playing. Each new {@link PlayState}
+ * (e.g. after pause, seek or track change) resets the reference point.
+ * 
+ * @author Dominic Lerbs
+ */
+public class PlaybackPositionTracker extends SpeakerChangedAdapter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaybackPositionTracker.class);
+
+    private static ScheduledExecutorService ticker;
+
+    private final Speaker speaker;
+    private volatile Anchor anchor;
+    private final ConcurrentMap<PlaybackProgressListener, ScheduledFuture<?>> progressTicks = new ConcurrentHashMap<>();
+
+    /**
+     * @param speaker
+     *            The {@link Speaker} whose position is tracked
+     */
+    public PlaybackPositionTracker(Speaker speaker) {
+        this.speaker = speaker;
+    }
+
+    /**
+     * Sets a new reference point from the given {@link PlayState}.
+     * 
+     * @param playState
+     *            The latest {@link PlayState} of the speaker
+     */
+    public void update(PlayState playState) {
+        anchor = new Anchor(playState.getState(), playState.getPositionInMs(), getDuration(playState),
+                System.nanoTime());
+    }
+
+    /**
+     * Moves the reference point to the given position, keeping the current state.
+     * 
+     * @param positionInMs
+     *            The new position in milliseconds
+     */
+    public void seek(long positionInMs) {
+        Anchor current = anchor;
+        if (current != null) {
+            anchor = new Anchor(current.state, positionInMs, current.durationInMs, System.nanoTime());
+        }
+    }
+
+    /**
+     * Discards the reference point, e.g. after the connection to the speaker has been lost.
+     */
+    public void reset() {
+        anchor = null;
+    }
+
+    /**
+     * @return True if a reference point is available
+     */
+    public boolean hasPosition() {
+        return anchor != null;
+    }
+
+    /**
+     * @return The interpolated position in milliseconds, or -1 if no reference point is available
+     */
+    public long getPositionInMs() {
+        Anchor current = anchor;
+        return current == null ? -1 : current.getPositionInMs();
+    }
+
+    /**
+     * Adds a listener which is called periodically with the interpolated position while the speaker is playing. All
+     * listeners share a single scheduler thread, so listeners should return quickly.
+     * 
+     * @param listener
+     *            The {@link PlaybackProgressListener} to add
+     * @param intervalInMs
+     *            The interval in milliseconds between two progress updates
+     */
+    public void addProgressListener(PlaybackProgressListener listener, long intervalInMs) {
+        removeProgressListener(listener);
+        ScheduledFuture<?> future = getTicker().scheduleAtFixedRate(() -> tick(listener), intervalInMs,
+                intervalInMs, TimeUnit.MILLISECONDS);
+        progressTicks.put(listener, future);
+    }
+
+    /**
+     * @param listener
+     *            The {@link PlaybackProgressListener} to remove
+     */
+    public void removeProgressListener(PlaybackProgressListener listener) {
+        ScheduledFuture<?> future = progressTicks.remove(listener);
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    private void tick(PlaybackProgressListener listener) {
+        Anchor current = anchor;
+        if (current == null || current.state != State.PLAYING) {
+            return;
+        }
+        try {
+            listener.onPlaybackProgress(speaker, current.getPositionInMs(), current.durationInMs);
+        } catch (RuntimeException e) {
+            logger.error("PlaybackProgressListener " + listener + " failed to process progress update", e);
+        }
+    }
+
+    private static synchronized ScheduledExecutorService getTicker() {
+        if (ticker == null) {
+            ticker = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("tchaikovsky-progress"));
+        }
+        return ticker;
+    }
+
+    private static long getDuration(PlayState playState) {
+        List<PlaylistItem> items = playState.getPlaylistItems();
+        int index = playState.getIndexCurrentItem();
+        if (items != null && index >= 0 && index < items.size()) {
+            return items.get(index).getDurationInMs();
+        }
+        return 0;
+    }
+
+    @Override
+    public void onPlayStateChanged(PlayState playState) {
+        update(playState);
+    }
+
+    /**
+     * Reference point for the interpolation.
+     */
+    private static class Anchor {
+        private final State state;
+        private final long positionInMs;
+        private final long durationInMs;
+        private final long timestampInNs;
+
+        Anchor(State state, long positionInMs, long durationInMs, long timestampInNs) {
+            this.state = state;
+            this.positionInMs = positionInMs;
+            this.durationInMs = durationInMs;
+            this.timestampInNs = timestampInNs;
+        }
+
+        long getPositionInMs() {
+            if (state != State.PLAYING) {
+                return positionInMs;
+            }
+            long position = positionInMs + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - timestampInNs);
+            return durationInMs > 0 ? Math.min(position, durationInMs) : position;
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.speaker.remote;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.kaizencode.tchaikovsky.listener.SpeakerChangedAdapter;
+
+/**
+ * Local cache of the playlist of a speaker. The playlist is kept until the speaker signals that it has changed, and
+ * is then read again on next access. A playlist read which was started before the change signal is not cached.
+ * 
+ * @author Dominic Lerbs
+ */
+public class PlaylistCache extends SpeakerChangedAdapter {
+
+    private volatile boolean enabled = true;
+    private volatile RemotePlaylist playlist;
+    private long generation = 0;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * @param enabled
+     *            True to cache the playlist (default), false to read it from the speaker on every access
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            invalidate();
+        }
+    }
+
+    /**
+     * @return True if the cache is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return The cached playlist, or null if it has to be read from the speaker
+     */
+    RemotePlaylist get() {
+        RemotePlaylist current = playlist;
+        if (current != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+        return current;
+    }
+
+    /**
+     * @return The cached playlist, or null if none is cached, without counting the access
+     */
+    RemotePlaylist peek() {
+        return playlist;
+    }
+
+    /**
+     * @return The current generation, to be passed to {@link #set(RemotePlaylist, long)} after reading the playlist
+     */
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Caches a playlist read from the speaker, unless the playlist has changed since the read has been started.
+     * 
+     * @param playlist
+     *            The playlist read from the speaker
+     * @param readGeneration
+     *            Generation returned by {@link #getGeneration()} before the read
+     */
+    synchronized void set(RemotePlaylist playlist, long readGeneration) {
+        if (enabled && playlist != null && readGeneration == generation) {
+            this.playlist = playlist;
+        }
+    }
+
+    /**
+     * Discards the cached playlist, so that it is read from the speaker on next access.
+     */
+    public synchronized void invalidate() {
+        generation++;
+        playlist = null;
+    }
+
+    /**
+     * @return Number of playlist accesses served from the cache
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return Number of playlist accesses which had to read the playlist from the speaker
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    @Override
+    public void onPlaylistChanged() {
+        invalidate();
+    }
+
+}
@@ -0,0 +1,139 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.speaker.remote;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import de.kaizencode.tchaikovsky.exception.SpeakerException;
+import de.kaizencode.tchaikovsky.speaker.PlaylistItem;
+
+/**
+ * Computes a 64 bit rolling hash over the content of a playlist, used to detect if a playlist has already been sent to
+ * the speaker. Strings are hashed character by character, so that the fingerprint does not inherit the collisions of
+ * {@link String#hashCode()}. Maps are hashed independently of their iteration order.
+ * 
+ * @author Dominic Lerbs
+ */
+final class PlaylistFingerprint {
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+    private static final long NULL_MARKER = 0x9e3779b97f4a7c15L;
+
+    private PlaylistFingerprint() {
+    }
+
+    /**
+     * @param items
+     *            Items of the playlist
+     * @param controllerType
+     *            Controller type of the playlist
+     * @param playlistUserData
+     *            User data of the playlist
+     * @return The fingerprint, or null if the playlist contains user data which cannot be hashed
+     */
+    static Long of(List<? extends PlaylistItem> items, String controllerType, String playlistUserData) {
+        long hash = OFFSET_BASIS;
+        hash = roll(hash, items.size());
+        try {
+            for (PlaylistItem item : items) {
+                hash = roll(hash, item);
+            }
+        } catch (SpeakerException e) {
+            return null;
+        }
+        hash = roll(hash, controllerType);
+        hash = roll(hash, playlistUserData);
+        return hash;
+    }
+
+    private static long roll(long hash, PlaylistItem item) throws SpeakerException {
+        hash = roll(hash, item.getUrl());
+        hash = roll(hash, item.getTitle());
+        hash = roll(hash, item.getArtist());
+        hash = roll(hash, item.getThumbnailUrl());
+        hash = roll(hash, item.getDurationInMs());
+        hash = roll(hash, item.getMediaType());
+        hash = roll(hash, item.getAlbum());
+        hash = roll(hash, item.getGenre());
+        hash = roll(hash, mapHash(item.getOtherData()));
+        // Read through the interface, which reports a missing description of a received item as empty
+        Map<String, Object> mediumDescription = item.getMediumDescription();
+        hash = roll(hash, mediumDescription == null || mediumDescription.isEmpty() ? NULL_MARKER
+                : mapHash(mediumDescription));
+        hash = roll(hash, valueHash(item.getUserData()));
+        return hash;
+    }
+
+    /**
+     * Hashes a decoded value by its content. Arrays, which may also be contained in maps and lists, are hashed by
+     * their elements instead of their identity.
+     */
+    private static long valueHash(Object value) {
+        if (value == null) {
+            return NULL_MARKER;
+        }
+        if (value instanceof Map) {
+            return mapHash((Map<?, ?>) value);
+        }
+        if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            long hash = roll(OFFSET_BASIS, list.size());
+            for (Object element : list) {
+                hash = roll(hash, valueHash(element));
+            }
+            return hash;
+        }
+        String text = value.getClass().isArray() ? Arrays.deepToString(new Object[] { value }) : value.toString();
+        return roll(roll(OFFSET_BASIS, value.getClass().getName()), text);
+    }
+
+    private static long mapHash(Map<?, ?> map) {
+        if (map == null) {
+            return NULL_MARKER;
+        }
+        long hash = map.size();
+        for (Entry<?, ?> entry : map.entrySet()) {
+            long entryHash = roll(OFFSET_BASIS, String.valueOf(entry.getKey()));
+            entryHash = roll(entryHash, valueHash(entry.getValue()));
+            hash += entryHash;
+        }
+        return hash;
+    }
+
+    private static long roll(long hash, String value) {
+        if (value == null) {
+            return roll(hash, NULL_MARKER);
+        }
+        hash = roll(hash, value.length());
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * PRIME;
+        }
+        return hash;
+    }
+
+    private static long roll(long hash, long value) {
+        for (int shift = 0; shift < 64; shift += 16) {
+            hash = (hash ^ ((value >>> shift) & 0xffff)) * PRIME;
+        }
+        return hash;
+    }
+
+}
@@ -0,0 +1,275 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.speaker.remote;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.kaizencode.tchaikovsky.exception.SpeakerException;
+
+/**
+ * Bounded pool which deduplicates {@link RemotePlaylistItem}s received from speakers. Structurally equal items are
+ * replaced by a single shared instance, and the strings of new items are replaced by equal strings already in the
+ * pool. Each pool holds at most the configured number of items and strings, evicting the least recently used ones.
+ * <p>
+ * Every {@link de.kaizencode.tchaikovsky.AllPlay} instance owns its own pool, which is shared by all of its speakers.
+ * Pooled items are shared by all playlists and play states they occur in, so they must not be modified.
+ * 
+ * @author Dominic Lerbs
+ */
+public class PlaylistItemPool {
+
+    /** Estimated shallow size of a {@link RemotePlaylistItem} in bytes */
+    private static final int ITEM_BYTES = 72;
+    /** Estimated size of a string in bytes, without its characters */
+    private static final int STRING_BYTES = 40;
+
+    private volatile boolean enabled = false;
+    private final BoundedMap<ItemKey, RemotePlaylistItem> items = new BoundedMap<>();
+    private final BoundedMap<String, String> strings = new BoundedMap<>();
+
+    private final AtomicLong itemHitCount = new AtomicLong();
+    private final AtomicLong stringHitCount = new AtomicLong();
+    private final AtomicLong savedBytes = new AtomicLong();
+
+    /**
+     * Enables the pool.
+     * 
+     * @param maxItems
+     *            Maximum number of items kept in the pool
+     * @param maxStrings
+     *            Maximum number of strings kept in the pool
+     */
+    public synchronized void enable(int maxItems, int maxStrings) {
+        if (maxItems < 1 || maxStrings < 1) {
+            throw new IllegalArgumentException("Pool sizes have to be at least 1");
+        }
+        items.setMaxSize(maxItems);
+        strings.setMaxSize(maxStrings);
+        enabled = true;
+    }
+
+    /**
+     * Disables the pool and releases all pooled items and strings.
+     */
+    public synchronized void disable() {
+        enabled = false;
+        items.clear();
+        strings.clear();
+    }
+
+    /**
+     * @return True if the pool is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Replaces the items of the playlist by their pooled instances. Does nothing if the pool is disabled.
+     * 
+     * @param playlist
+     *            The playlist received from a speaker
+     * @return The same playlist
+     */
+    public RemotePlaylist intern(RemotePlaylist playlist) {
+        if (playlist != null) {
+            internAll(playlist.playlistItems);
+        }
+        return playlist;
+    }
+
+    /**
+     * Replaces the items of the play state by their pooled instances. Does nothing if the pool is disabled.
+     * 
+     * @param playState
+     *            The play state received from a speaker
+     * @return The same play state
+     */
+    public RemotePlayState intern(RemotePlayState playState) {
+        if (playState != null) {
+            internAll(playState.playlistItems);
+        }
+        return playState;
+    }
+
+    /**
+     * Replaces all items of the array by their pooled instances. Does nothing if the pool is disabled.
+     * 
+     * @param playlistItems
+     *            The items to deduplicate, may be null
+     */
+    public void internAll(RemotePlaylistItem[] playlistItems) {
+        if (!enabled || playlistItems == null) {
+            return;
+        }
+        synchronized (this) {
+            for (int i = 0; i < playlistItems.length; i++) {
+                playlistItems[i] = intern(playlistItems[i]);
+            }
+        }
+    }
+
+    /**
+     * @return Number of items which have been replaced by a pooled instance
+     */
+    public long getItemHitCount() {
+        return itemHitCount.get();
+    }
+
+    /**
+     * @return Number of strings which have been replaced by a pooled instance
+     */
+    public long getStringHitCount() {
+        return stringHitCount.get();
+    }
+
+    /**
+     * @return Estimated number of bytes saved by replacing items and strings with pooled instances
+     */
+    public long getSavedBytes() {
+        return savedBytes.get();
+    }
+
+    /**
+     * @return Number of items currently in the pool
+     */
+    public synchronized int getItemCount() {
+        return items.size();
+    }
+
+    private RemotePlaylistItem intern(RemotePlaylistItem item) {
+        if (item == null) {
+            return null;
+        }
+        ItemKey key = new ItemKey(item);
+        RemotePlaylistItem pooled = items.get(key);
+        if (pooled != null) {
+            if (pooled != item) {
+                itemHitCount.incrementAndGet();
+                savedBytes.addAndGet(ITEM_BYTES + droppedStringBytes(item, pooled));
+            }
+            return pooled;
+        }
+        item.url = intern(item.url);
+        item.title = intern(item.title);
+        item.artist = intern(item.artist);
+        item.thumbnailUrl = intern(item.thumbnailUrl);
+        item.mediaType = intern(item.mediaType);
+        item.album = intern(item.album);
+        item.genre = intern(item.genre);
+        items.put(key, item);
+        return item;
+    }
+
+    private String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String pooled = strings.get(value);
+        if (pooled == null) {
+            strings.put(value, value);
+            return value;
+        }
+        if (pooled != value) {
+            stringHitCount.incrementAndGet();
+            savedBytes.addAndGet(stringBytes(value));
+        }
+        return pooled;
+    }
+
+    private static long droppedStringBytes(RemotePlaylistItem dropped, RemotePlaylistItem pooled) {
+        return droppedStringBytes(dropped.url, pooled.url) + droppedStringBytes(dropped.title, pooled.title)
+                + droppedStringBytes(dropped.artist, pooled.artist)
+                + droppedStringBytes(dropped.thumbnailUrl, pooled.thumbnailUrl)
+                + droppedStringBytes(dropped.mediaType, pooled.mediaType)
+                + droppedStringBytes(dropped.album, pooled.album) + droppedStringBytes(dropped.genre, pooled.genre);
+    }
+
+    private static long droppedStringBytes(String dropped, String pooled) {
+        return dropped == null || dropped == pooled ? 0 : stringBytes(dropped);
+    }
+
+    private static long stringBytes(String value) {
+        return STRING_BYTES + 2L * value.length();
+    }
+
+    /**
+     * Key comparing the content of a {@link RemotePlaylistItem}. Its variants do not define a hash code, so they only
+     * take part in the comparison by their decoded values. Items whose variants cannot be decoded are only equal to
+     * themselves and are therefore never replaced.
+     */
+    private static class ItemKey {
+        private final RemotePlaylistItem item;
+        private final int hash;
+
+        ItemKey(RemotePlaylistItem item) {
+            this.item = item;
+            this.hash = Objects.hash(item.url, item.title, item.artist, item.thumbnailUrl, item.durationInMs,
+                    item.mediaType, item.album, item.genre, item.otherData);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ItemKey)) {
+                return false;
+            }
+            ItemKey other = (ItemKey) obj;
+            try {
+                return hash == other.hash && item.hasSameContent(other.item);
+            } catch (SpeakerException | RuntimeException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Map evicting the least recently used entry when its maximum size is exceeded.
+     */
+    private static class BoundedMap<K, V> extends LinkedHashMap<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        private int maxSize = 1;
+
+        BoundedMap() {
+            super(16, 0.75f, true);
+        }
+
+        void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+            while (size() > maxSize) {
+                remove(keySet().iterator().next());
+            }
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+    }
+
+}
@@ -0,0 +1,165 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.speaker.remote;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.kaizencode.tchaikovsky.listener.SpeakerChangedAdapter;
+import de.kaizencode.tchaikovsky.speaker.PlayState;
+import de.kaizencode.tchaikovsky.speaker.PlayState.State;
+
+/**
+ * Keeps the fingerprint of the playlist last sent to or read from the speaker, together with the play state and
+ * current index reported by the speaker, so that redundant playlist updates can be skipped. A PlaylistChanged signal
+ * marks the fingerprint as unverified, as the playlist might have been changed by another controller.
+ * 
+ * @author Dominic Lerbs
+ */
+public class PlaylistUploadTracker extends SpeakerChangedAdapter {
+
+    private Long fingerprint;
+    private boolean verified = false;
+    private long changeCount = 0;
+    private int index = -1;
+    private State state = State.UNKNOWN;
+
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong skippedCount = new AtomicLong();
+    private final AtomicLong indexOnlyCount = new AtomicLong();
+
+    /**
+     * @param candidate
+     *            Fingerprint of a playlist about to be sent
+     * @return True if the speaker is known to have exactly this playlist
+     */
+    synchronized boolean isCurrent(Long candidate) {
+        return verified && candidate != null && candidate.equals(fingerprint);
+    }
+
+    /**
+     * @param candidate
+     *            Fingerprint of a playlist about to be sent
+     * @return True if the playlist might be current, but the speaker has signaled a change since it has been recorded
+     */
+    synchronized boolean needsVerification(Long candidate) {
+        return !verified && candidate != null && candidate.equals(fingerprint);
+    }
+
+    /**
+     * @return Number of PlaylistChanged signals received, to be passed to {@link #recordPlaylist(Long, long)}
+     */
+    synchronized long getChangeCount() {
+        return changeCount;
+    }
+
+    /**
+     * Records a playlist read from the speaker, unless the speaker has signaled a change since the read has been
+     * started.
+     */
+    synchronized void recordPlaylist(Long playlistFingerprint, long readChangeCount) {
+        if (readChangeCount == changeCount) {
+            if (playlistFingerprint == null || !playlistFingerprint.equals(fingerprint)) {
+                index = -1;
+            }
+            fingerprint = playlistFingerprint;
+            verified = playlistFingerprint != null;
+        }
+    }
+
+    /**
+     * Records a playlist sent to the speaker.
+     */
+    synchronized void recordUpload(Long playlistFingerprint) {
+        fingerprint = playlistFingerprint;
+        verified = playlistFingerprint != null;
+        // Unknown until the speaker reports its play state for the new playlist
+        index = -1;
+        sentCount.incrementAndGet();
+    }
+
+    void recordSkipped() {
+        skippedCount.incrementAndGet();
+    }
+
+    synchronized void recordIndexChange() {
+        // Unknown until the speaker reports the new current item
+        index = -1;
+        indexOnlyCount.incrementAndGet();
+    }
+
+    synchronized void recordPlayState(PlayState playState) {
+        state = playState.getState();
+        index = playState.getIndexCurrentItem();
+    }
+
+    /**
+     * @return Index of the current item as last reported by the speaker, or -1 if unknown
+     */
+    synchronized int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return State of the speaker as last known
+     */
+    synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Discards the recorded playlist, so that the next update is sent to the speaker.
+     */
+    public synchronized void invalidate() {
+        fingerprint = null;
+        verified = false;
+        index = -1;
+        state = State.UNKNOWN;
+    }
+
+    /**
+     * @return Number of playlist updates which have been sent to the speaker
+     */
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    /**
+     * @return Number of playlist updates which have been skipped as the speaker already had the playlist
+     */
+    public long getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    /**
+     * @return Number of playlist updates which only changed the index and have been sent as play command
+     */
+    public long getIndexOnlyCount() {
+        return indexOnlyCount.get();
+    }
+
+    @Override
+    public synchronized void onPlaylistChanged() {
+        changeCount++;
+        verified = false;
+    }
+
+    @Override
+    public void onPlayStateChanged(PlayState playState) {
+        recordPlayState(playState);
+    }
+
+}
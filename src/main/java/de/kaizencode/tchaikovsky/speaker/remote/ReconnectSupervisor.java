@@ -0,0 +1,268 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.speaker.remote;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.kaizencode.tchaikovsky.bus.SpeakerBusHandler;
+import de.kaizencode.tchaikovsky.concurrent.NamedThreadFactory;
+import de.kaizencode.tchaikovsky.exception.ConnectionException;
+import de.kaizencode.tchaikovsky.exception.SpeakerException;
+import de.kaizencode.tchaikovsky.listener.SpeakerChangedAdapter;
+import de.kaizencode.tchaikovsky.listener.SpeakerChangedListener;
+import de.kaizencode.tchaikovsky.listener.SpeakerConnectionListener;
+import de.kaizencode.tchaikovsky.speaker.PlayState;
+import de.kaizencode.tchaikovsky.speaker.Speaker.LoopMode;
+import de.kaizencode.tchaikovsky.speaker.Speaker.ShuffleMode;
+
+/**
+ * Reconnects a {@link RemoteSpeaker} after its session has been lost. Attempts are scheduled with capped exponential
+ * backoff and random jitter, so that many speakers losing their session at the same time do not reconnect at the
+ * same time. Rejoining the session registers the speaker with the signal handler again.
+ * 
+ * The supervisor keeps track of the last known state of the speaker. Once reconnected, the state is read again and
+ * all values which changed in the meantime (or have not been known before) are reported to the
+ * {@link SpeakerChangedListener}s. As the playlist is not kept, a playlist change is reported after every reconnect.
+ * 
+ * @author Dominic Lerbs
+ */
+class ReconnectSupervisor extends SpeakerChangedAdapter implements SpeakerConnectionListener {
+
+    private final Logger logger = LoggerFactory.getLogger(ReconnectSupervisor.class);
+
+    static final long INITIAL_DELAY_IN_MS = 1000;
+    static final long MAX_DELAY_IN_MS = 60000;
+
+    private static ScheduledExecutorService scheduler;
+
+    private final RemoteSpeaker speaker;
+    private final SpeakerBusHandler busHandler;
+    private final Executor executor;
+
+    private volatile boolean enabled = false;
+    private int attempt = 0;
+    private ScheduledFuture<?> pendingAttempt;
+
+    private volatile LoopMode loopMode;
+    private volatile ShuffleMode shuffleMode;
+    private volatile PlayState playState;
+    private volatile Integer volume;
+    private volatile Boolean mute;
+    private volatile Boolean volumeControlEnabled;
+    private volatile String input;
+
+    ReconnectSupervisor(RemoteSpeaker speaker, SpeakerBusHandler busHandler, Executor executor) {
+        this.speaker = speaker;
+        this.busHandler = busHandler;
+        this.executor = executor;
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            cancel();
+        }
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Cancels a pending reconnect attempt, e.g. because the speaker has been disconnected on purpose.
+     */
+    synchronized void cancel() {
+        if (pendingAttempt != null) {
+            pendingAttempt.cancel(false);
+            pendingAttempt = null;
+        }
+        attempt = 0;
+    }
+
+    @Override
+    public void onConnectionLost(String hostName, int alljoynReasonCode) {
+        if (enabled) {
+            scheduleAttempt();
+        }
+    }
+
+    private synchronized void scheduleAttempt() {
+        if (pendingAttempt != null && !pendingAttempt.isDone()) {
+            return;
+        }
+        attempt++;
+        long delayInMs = getDelayInMs(attempt);
+        logger.debug("Reconnecting to speaker " + speaker + " in " + delayInMs + "ms (attempt " + attempt + ")");
+        pendingAttempt = getScheduler().schedule(this::submitAttempt, delayInMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void submitAttempt() {
+        try {
+            executor.execute(this::reconnect);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Unable to submit reconnect of speaker " + speaker + ", retrying later");
+            synchronized (this) {
+                pendingAttempt = null;
+            }
+            scheduleAttempt();
+        }
+    }
+
+    private void reconnect() {
+        synchronized (this) {
+            pendingAttempt = null;
+        }
+        if (!enabled || speaker.isConnected()) {
+            return;
+        }
+        try {
+            speaker.connect();
+        } catch (ConnectionException | RuntimeException e) {
+            logger.info("Reconnect to speaker " + speaker + " failed: " + e.getMessage());
+            if (enabled) {
+                scheduleAttempt();
+            }
+            return;
+        }
+        logger.info("Reconnected to speaker " + speaker);
+        synchronized (this) {
+            attempt = 0;
+        }
+        replayStateDiff();
+    }
+
+    /**
+     * @param attempt
+     *            Number of the attempt, starting with 1
+     * @return Delay before the attempt, randomly chosen between half and full exponential backoff
+     */
+    static long getDelayInMs(int attempt) {
+        long delay = INITIAL_DELAY_IN_MS << Math.min(attempt - 1, 30);
+        if (delay <= 0 || delay > MAX_DELAY_IN_MS) {
+            delay = MAX_DELAY_IN_MS;
+        }
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private void replayStateDiff() {
+        // Playlist changes might have been missed while disconnected
+        busHandler.dispatchSpeakerChanged(listener -> listener.onPlaylistChanged());
+        try {
+            RemotePlayState newPlayState = speaker.getPlayState();
+            if (playStateChanged(playState, newPlayState)) {
+                playState = newPlayState;
+                busHandler.dispatchSpeakerChanged(listener -> listener.onPlayStateChanged(newPlayState));
+            }
+            LoopMode newLoopMode = speaker.getLoopMode();
+            if (newLoopMode != loopMode) {
+                loopMode = newLoopMode;
+                busHandler.dispatchSpeakerChanged(listener -> listener.onLoopModeChanged(newLoopMode));
+            }
+            ShuffleMode newShuffleMode = speaker.getShuffleMode();
+            if (newShuffleMode != shuffleMode) {
+                shuffleMode = newShuffleMode;
+                busHandler.dispatchSpeakerChanged(listener -> listener.onShuffleModeChanged(newShuffleMode));
+            }
+            int newVolume = speaker.volume().getVolume();
+            if (!Objects.equals(newVolume, volume)) {
+                volume = newVolume;
+                busHandler.dispatchSpeakerChanged(listener -> listener.onVolumeChanged(newVolume));
+            }
+            boolean newMute = speaker.volume().isMute();
+            if (!Objects.equals(newMute, mute)) {
+                mute = newMute;
+                busHandler.dispatchSpeakerChanged(listener -> listener.onMuteChanged(newMute));
+            }
+            boolean newVolumeControlEnabled = speaker.volume().isControlEnabled();
+            if (!Objects.equals(newVolumeControlEnabled, volumeControlEnabled)) {
+                volumeControlEnabled = newVolumeControlEnabled;
+                busHandler.dispatchSpeakerChanged(
+                        listener -> listener.onVolumeControlChanged(newVolumeControlEnabled));
+            }
+        } catch (SpeakerException | RuntimeException e) {
+            logger.warn("Unable to read state of reconnected speaker " + speaker, e);
+            return;
+        }
+        try {
+            String newInput = speaker.input().getActiveInput();
+            if (!Objects.equals(newInput, input)) {
+                input = newInput;
+                busHandler.dispatchSpeakerChanged(listener -> listener.onInputChanged(newInput));
+            }
+        } catch (SpeakerException | RuntimeException e) {
+            logger.debug("Speaker " + speaker + " does not provide an active input");
+        }
+    }
+
+    private static boolean playStateChanged(PlayState oldState, PlayState newState) {
+        return oldState == null || oldState.getState() != newState.getState()
+                || oldState.getIndexCurrentItem() != newState.getIndexCurrentItem();
+    }
+
+    private static synchronized ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("tchaikovsky-reconnect"));
+        }
+        return scheduler;
+    }
+
+    @Override
+    public void onLoopModeChanged(LoopMode loopMode) {
+        this.loopMode = loopMode;
+    }
+
+    @Override
+    public void onPlayStateChanged(PlayState playState) {
+        this.playState = playState;
+    }
+
+    @Override
+    public void onShuffleModeChanged(ShuffleMode shuffleMode) {
+        this.shuffleMode = shuffleMode;
+    }
+
+    @Override
+    public void onVolumeChanged(int volume) {
+        this.volume = volume;
+    }
+
+    @Override
+    public void onMuteChanged(boolean mute) {
+        this.mute = mute;
+    }
+
+    @Override
+    public void onVolumeControlChanged(boolean enabled) {
+        this.volumeControlEnabled = enabled;
+    }
+
+    @Override
+    public void onInputChanged(String input) {
+        this.input = input;
+    }
+
+}
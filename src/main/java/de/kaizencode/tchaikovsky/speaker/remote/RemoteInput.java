@@ -19,7 +19,6 @@ package de.kaizencode.tchaikovsky.speaker.remote;
 import java.util.Arrays;
 import java.util.List;
 
-import org.alljoyn.bus.BusException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,46 +35,64 @@ public class RemoteInput implements Input {
 
     private final Logger logger = LoggerFactory.getLogger(RemoteInput.class);
     private final InputSelectorInterface inputSelectorInterface;
+    private final InputSelectorInterface inputSelectorWriteInterface;
+    private final SpeakerStateCache stateCache;
+    private final BusCaller caller;
 
     public RemoteInput(InputSelectorInterface inputSelectorInterface) {
+        this(inputSelectorInterface, new SpeakerStateCache());
+    }
+
+    public RemoteInput(InputSelectorInterface inputSelectorInterface, SpeakerStateCache stateCache) {
+        this(inputSelectorInterface, inputSelectorInterface, stateCache, new BusCaller());
+    }
+
+    /**
+     * @param inputSelectorInterface
+     *            Interface used for reads
+     * @param inputSelectorWriteInterface
+     *            Interface used for writes, which may have a different reply timeout
+     * @param stateCache
+     *            The {@link SpeakerStateCache} of the speaker
+     * @param caller
+     *            The {@link BusCaller} applying the call policy of the speaker
+     */
+    RemoteInput(InputSelectorInterface inputSelectorInterface, InputSelectorInterface inputSelectorWriteInterface,
+            SpeakerStateCache stateCache, BusCaller caller) {
         this.inputSelectorInterface = inputSelectorInterface;
+        this.inputSelectorWriteInterface = inputSelectorWriteInterface;
+        this.stateCache = stateCache;
+        this.caller = caller;
     }
 
     @Override
     public List<String> getInputList() throws SpeakerException {
-        try {
-            return Arrays.asList(inputSelectorInterface.getInputList());
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to receive input list", e);
-        }
+        return Arrays.asList(caller.readShared("InputList", "Unable to receive input list",
+                inputSelectorInterface::getInputList));
     }
 
     @Override
     public String getActiveInput() throws SpeakerException {
-        try {
-            return inputSelectorInterface.getActiveInput();
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to receive active input", e);
+        String cachedInput = stateCache.activeInput.get();
+        if (cachedInput != null) {
+            return cachedInput;
         }
+        String input = caller.readShared("ActiveInput", "Unable to receive active input",
+                inputSelectorInterface::getActiveInput);
+        stateCache.activeInput.set(input);
+        return input;
     }
 
     @Override
     public void setInput(String input) throws SpeakerException {
         logger.debug("Setting speaker to input " + input);
-        try {
-            inputSelectorInterface.selectInput(input);
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to set input to " + input, e);
-        }
+        stateCache.activeInput.invalidate();
+        caller.write("Unable to set input to " + input, () -> inputSelectorWriteInterface.selectInput(input));
     }
 
     @Override
     public short getVersion() throws SpeakerException {
-        try {
-            return inputSelectorInterface.getVersion();
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to receive version", e);
-        }
+        return caller.readShared("InputVersion", "Unable to receive version", inputSelectorInterface::getVersion);
     }
 
 }
@@ -17,6 +17,7 @@
 package de.kaizencode.tchaikovsky.speaker.remote;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.alljoyn.bus.annotation.Position;
@@ -96,6 +97,9 @@ public class RemotePlayState implements PlayState {
 
     @Override
     public List<PlaylistItem> getPlaylistItems() {
+        if (playlistItems == null) {
+            return Collections.emptyList();
+        }
         return Arrays.asList(playlistItems);
     }
 
@@ -17,6 +17,7 @@
 package de.kaizencode.tchaikovsky.speaker.remote;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.alljoyn.bus.annotation.Position;
@@ -50,7 +51,22 @@ public class RemotePlaylist implements Playlist {
 
     @Override
     public List<PlaylistItem> getPlaylistItems() {
-        return Arrays.asList(playlistItems);
+        return Collections.unmodifiableList(Arrays.<PlaylistItem> asList(playlistItems));
+    }
+
+    @Override
+    public List<PlaylistItem> getPlaylistItems(int fromIndex, int toIndex) {
+        int from = Math.max(0, fromIndex);
+        int to = Math.min(size(), toIndex);
+        if (from >= to) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.<PlaylistItem> asList(playlistItems).subList(from, to));
+    }
+
+    @Override
+    public int size() {
+        return playlistItems == null ? 0 : playlistItems.length;
     }
 
     @Override
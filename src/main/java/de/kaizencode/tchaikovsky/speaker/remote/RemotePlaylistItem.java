@@ -16,7 +16,9 @@
  */
 package de.kaizencode.tchaikovsky.speaker.remote;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.Objects;
 
 import org.alljoyn.bus.Variant;
 import org.alljoyn.bus.annotation.Position;
@@ -72,6 +74,12 @@ public class RemotePlaylistItem implements PlaylistItem {
     @Signature("v")
     public Variant userData;
 
+    // Decoded on first access, as converting the variants is expensive and the item is usually displayed repeatedly.
+    // The decoded value is kept together with the field value it has been decoded from, so that assigning a new value
+    // to the public field decodes it again.
+    private volatile Decoded<Map<String, Object>> decodedMediumDescription;
+    private volatile Decoded<Object> decodedUserData;
+
     @Override
     public String getUrl() {
         return url;
@@ -117,14 +125,59 @@ public class RemotePlaylistItem implements PlaylistItem {
         return otherData;
     }
 
+    /**
+     * {@inheritDoc} The returned map is unmodifiable, as it is shared by all callers. It is decoded again if a new map
+     * is assigned to {@link #mediumDescription}, but not if the assigned map is modified.
+     */
     @Override
     public Map<String, Object> getMediumDescription() throws SpeakerException {
-        return VariantConverter.convertToMap(mediumDescription);
+        Map<String, Variant> source = mediumDescription;
+        Decoded<Map<String, Object>> decoded = decodedMediumDescription;
+        if (decoded == null || decoded.source != source) {
+            Map<String, Object> value = source == null ? Collections.<String, Object> emptyMap()
+                    : Collections.unmodifiableMap(VariantConverter.convertToMap(source));
+            decoded = new Decoded<>(source, value);
+            decodedMediumDescription = decoded;
+        }
+        return decoded.value;
     }
 
+    /**
+     * {@inheritDoc} The user data is decoded again if a new variant is assigned to {@link #userData}.
+     */
     @Override
     public Object getUserData() throws SpeakerException {
-        return VariantConverter.convert(userData);
+        Variant source = userData;
+        Decoded<Object> decoded = decodedUserData;
+        if (decoded == null || decoded.source != source) {
+            decoded = new Decoded<>(source, VariantConverter.convert(source));
+            decodedUserData = decoded;
+        }
+        return decoded.value;
+    }
+
+    /**
+     * Compares the content of both items. The variants are compared by their decoded values, as a {@link Variant}
+     * received from the bus cannot be compared before it has been decoded, see
+     * {@link VariantConverter#valuesEqual(Object, Object)}.
+     * 
+     * @param other
+     *            The item to compare with
+     * @return True if both items have the same content
+     * @throws SpeakerException
+     *             if the variants of one of the items cannot be decoded
+     */
+    public boolean hasSameContent(RemotePlaylistItem other) throws SpeakerException {
+        if (other == this) {
+            return true;
+        }
+        return other != null && durationInMs == other.durationInMs && Objects.equals(url, other.url)
+                && Objects.equals(title, other.title) && Objects.equals(artist, other.artist)
+                && Objects.equals(thumbnailUrl, other.thumbnailUrl) && Objects.equals(mediaType, other.mediaType)
+                && Objects.equals(album, other.album) && Objects.equals(genre, other.genre)
+                && Objects.equals(otherData, other.otherData)
+                && VariantConverter.valuesEqual(getMediumDescription(), other.getMediumDescription())
+                && VariantConverter.valuesEqual(getUserData(), other.getUserData());
     }
 
     @Override
@@ -132,4 +185,17 @@ public class RemotePlaylistItem implements PlaylistItem {
         return artist + " - " + title + " (" + url + ")";
     }
 
+    /**
+     * A decoded value together with the field value it has been decoded from.
+     */
+    private static final class Decoded<T> {
+        private final Object source;
+        private final T value;
+
+        Decoded(Object source, T value) {
+            this.source = source;
+            this.value = value;
+        }
+    }
+
 }
@@ -16,27 +16,45 @@
  */
 package de.kaizencode.tchaikovsky.speaker.remote;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.alljoyn.bus.BusException;
 import org.alljoyn.bus.ProxyBusObject;
+import org.alljoyn.bus.Variant;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import de.kaizencode.tchaikovsky.bus.CircuitBreaker;
+import de.kaizencode.tchaikovsky.bus.DiscoverySession;
 import de.kaizencode.tchaikovsky.bus.SpeakerBusHandler;
 import de.kaizencode.tchaikovsky.businterface.InputSelectorInterface;
-import de.kaizencode.tchaikovsky.businterface.MCUInterface;
 import de.kaizencode.tchaikovsky.businterface.MediaPlayerInterface;
 import de.kaizencode.tchaikovsky.businterface.VolumeInterface;
-import de.kaizencode.tchaikovsky.businterface.ZoneManagerInterface;
+import de.kaizencode.tchaikovsky.concurrent.AsyncCalls;
+import de.kaizencode.tchaikovsky.concurrent.CommandStatistics;
+import de.kaizencode.tchaikovsky.concurrent.LatestValueCommand;
 import de.kaizencode.tchaikovsky.exception.ConnectionException;
 import de.kaizencode.tchaikovsky.exception.SpeakerException;
+import de.kaizencode.tchaikovsky.listener.CommandErrorListener;
+import de.kaizencode.tchaikovsky.listener.PlaybackProgressListener;
 import de.kaizencode.tchaikovsky.listener.SpeakerChangedListener;
 import de.kaizencode.tchaikovsky.listener.SpeakerConnectionListener;
+import de.kaizencode.tchaikovsky.speaker.AsyncSpeaker;
+import de.kaizencode.tchaikovsky.speaker.CallPolicy;
 import de.kaizencode.tchaikovsky.speaker.Input;
+import de.kaizencode.tchaikovsky.speaker.PlayState.State;
 import de.kaizencode.tchaikovsky.speaker.PlaylistItem;
 import de.kaizencode.tchaikovsky.speaker.Speaker;
 import de.kaizencode.tchaikovsky.speaker.SpeakerDetails;
+import de.kaizencode.tchaikovsky.speaker.SpeakerSnapshot;
 import de.kaizencode.tchaikovsky.speaker.Volume;
 import de.kaizencode.tchaikovsky.speaker.ZoneManager;
 
@@ -44,21 +62,102 @@ public class RemoteSpeaker implements Speaker, SpeakerConnectionListener {
 
     private final Logger logger = LoggerFactory.getLogger(RemoteSpeaker.class);
 
-    private final SpeakerBusHandler busHandler;
-    private int sessionTimeoutInSec = 40;
-    private boolean isConnected = false;
+    /**
+     * Call activating signal delivery after a session has been joined, see {@link #setSignalPriming(SignalPriming)}.
+     */
+    public enum SignalPriming {
+        /** Retrieve the playlist */
+        PLAYLIST,
+        /**
+         * Read the loop mode, which has a much smaller reply than the playlist. The playlist is retrieved additionally
+         * if reading fails or no signal is received within {@link RemoteSpeaker#SIGNAL_CHECK_DELAY_IN_MS}. Note that
+         * a speaker whose state does not change sends no signals, so for idle speakers the playlist is retrieved as
+         * well, but outside of the connect.
+         */
+        LOOP_MODE
+    }
 
-    private MediaPlayerInterface mediaPlayerInterface;
-    private MCUInterface mcuInterface;
+    /** Time after priming with the loop mode after which the playlist is retrieved if no signal has been received */
+    public static final long SIGNAL_CHECK_DELAY_IN_MS = 10000;
 
-    private final SpeakerDetails details;
-    private Volume volume;
-    private ZoneManager zoneManager;
-    private Input input;
+    private final SpeakerBusHandler busHandler;
+    private int sessionTimeoutInSec = 40;
+    private volatile boolean isConnected = false;
+
+    private final BusCaller caller;
+    private volatile SessionProxies proxies;
+
+    private volatile SpeakerDetails details;
+    private final SpeakerStateCache stateCache = new SpeakerStateCache();
+    private final PlaylistCache playlistCache = new PlaylistCache();
+    private final PlaylistUploadTracker uploadTracker = new PlaylistUploadTracker();
+    private final PlaybackPositionTracker positionTracker = new PlaybackPositionTracker(this);
+    private final AsyncCalls calls;
+    private final PlaylistItemPool itemPool;
+    private final AsyncSpeaker asyncSpeaker;
+    private final ReconnectSupervisor reconnectSupervisor;
+
+    private volatile boolean coalescingCommands = false;
+    private volatile CommandErrorListener commandErrorListener;
+    private volatile SignalPriming signalPriming = SignalPriming.PLAYLIST;
+    private final SignalActivityTracker signalTracker = new SignalActivityTracker();
+    private final LatestValueCommand<LoopMode> loopModeCommand;
+    private final LatestValueCommand<ShuffleMode> shuffleModeCommand;
+    private final LatestValueCommand<Long> positionCommand;
 
     public RemoteSpeaker(SpeakerBusHandler bus, SpeakerDetails details) {
+        this(bus, details, AsyncCalls.getDefault());
+    }
+
+    /**
+     * @param bus
+     *            The {@link SpeakerBusHandler} of the speaker
+     * @param details
+     *            The {@link SpeakerDetails} of the speaker
+     * @param sharedCalls
+     *            The {@link AsyncCalls} of the {@link de.kaizencode.tchaikovsky.AllPlay} instance, of which the
+     *            speaker gets its own bounded share
+     */
+    public RemoteSpeaker(SpeakerBusHandler bus, SpeakerDetails details, AsyncCalls sharedCalls) {
+        this(bus, details, sharedCalls, new PlaylistItemPool());
+    }
+
+    /**
+     * @param bus
+     *            The {@link SpeakerBusHandler} of the speaker
+     * @param details
+     *            The {@link SpeakerDetails} of the speaker
+     * @param sharedCalls
+     *            The {@link AsyncCalls} of the {@link de.kaizencode.tchaikovsky.AllPlay} instance, of which the
+     *            speaker gets its own bounded share
+     * @param itemPool
+     *            The {@link PlaylistItemPool} of the {@link de.kaizencode.tchaikovsky.AllPlay} instance
+     */
+    public RemoteSpeaker(SpeakerBusHandler bus, SpeakerDetails details, AsyncCalls sharedCalls,
+            PlaylistItemPool itemPool) {
         this.busHandler = bus;
         this.details = details;
+        this.itemPool = itemPool;
+        // A single share, so that bus calls and commands count against the same per speaker limit
+        this.calls = sharedCalls.forSpeaker();
+        this.caller = new BusCaller(busHandler.getCircuitBreaker(), calls);
+        this.asyncSpeaker = new AsyncSpeaker(this, calls);
+        this.loopModeCommand = new LatestValueCommand<>("loop mode", this::applySetLoopMode, calls.getExecutor());
+        this.shuffleModeCommand = new LatestValueCommand<>("shuffle mode", this::applySetShuffleMode,
+                calls.getExecutor());
+        this.positionCommand = new LatestValueCommand<>("position", this::applySetPosition, calls.getExecutor());
+        loopModeCommand.setErrorHandler(this::onCommandFailed);
+        shuffleModeCommand.setErrorHandler(this::onCommandFailed);
+        positionCommand.setErrorHandler(this::onCommandFailed);
+        busHandler.addSpeakerChangedListener(stateCache);
+        busHandler.addSpeakerChangedListener(playlistCache);
+        busHandler.setCachedPlaylist(playlistCache::peek);
+        busHandler.addSpeakerChangedListener(uploadTracker);
+        busHandler.addSpeakerChangedListener(positionTracker);
+        busHandler.addSpeakerChangedListener(signalTracker);
+        this.reconnectSupervisor = new ReconnectSupervisor(this, busHandler, calls.getExecutor());
+        busHandler.addSpeakerChangedListener(reconnectSupervisor);
+        busHandler.setConnectionListener(reconnectSupervisor);
     }
 
     @Override
@@ -76,34 +175,136 @@ public class RemoteSpeaker implements Speaker, SpeakerConnectionListener {
         return details;
     }
 
+    /**
+     * Updates the speaker with the data of a repeated announcement.
+     * 
+     * @param busName
+     *            Bus name or well-known name the speaker has been announced with
+     * @param port
+     *            Port where the speaker is listening
+     * @param details
+     *            The {@link SpeakerDetails} of the announcement
+     */
+    public void updateAnnouncement(String busName, short port, SpeakerDetails details) {
+        this.details = details;
+        busHandler.updateHost(busName, port);
+    }
+
+    /**
+     * Offers a session joined during discovery, to be used by the next connect instead of joining a new session.
+     * 
+     * @param session
+     *            The {@link DiscoverySession} to the speaker
+     * @param idleTimeoutInMs
+     *            Time in milliseconds after which the session is left if the speaker has not been connected
+     */
+    public void offerDiscoverySession(DiscoverySession session, long idleTimeoutInMs) {
+        if (isConnected) {
+            session.close();
+        } else {
+            busHandler.offerSession(session, idleTimeoutInMs);
+        }
+    }
+
     @Override
     public void connect() throws ConnectionException {
+        busHandler.setConnectionListener(this);
+        onSessionJoined(busHandler.connect());
+    }
 
+    @Override
+    public CompletableFuture<Void> connectAsync() {
         busHandler.setConnectionListener(this);
+        // The remaining setup performs blocking calls, which must not run on the AllJoyn callback thread
+        return busHandler.connectAsync().thenAcceptAsync(this::onSessionJoined, calls.getExecutor());
+    }
 
-        ProxyBusObject allPlayObject = busHandler.connect();
+    private void onSessionJoined(ProxyBusObject sessionObject) {
+        proxies = new SessionProxies(busHandler, sessionObject, stateCache, caller, calls.getExecutor(),
+                this::onCommandFailed);
         busHandler.setSessionTimeout(sessionTimeoutInSec);
         isConnected = true;
 
-        mediaPlayerInterface = allPlayObject.getInterface(MediaPlayerInterface.class);
-        volume = new RemoteVolume(allPlayObject.getInterface(VolumeInterface.class));
-        zoneManager = new RemoteZoneManager(allPlayObject.getInterface(ZoneManagerInterface.class));
-        mcuInterface = allPlayObject.getInterface(MCUInterface.class);
-        input = new RemoteInput(allPlayObject.getInterface(InputSelectorInterface.class));
+        primeSignalDelivery();
+        if (stateCache.isEnabled()) {
+            seedStateCache();
+        }
+    }
 
-        // For an unknown reason, it is necessary to perform at least one method call
-        // after registering the signal handler, else the signal handler will not receive any updates
+    /**
+     * For an unknown reason, it is necessary to perform at least one method call after registering the signal handler,
+     * else the signal handler will not receive any updates. By default, the playlist is retrieved as before. With
+     * {@link SignalPriming#LOOP_MODE}, the much smaller loop mode is read instead, and the playlist is only retrieved
+     * if reading the loop mode fails or no signal has been received shortly afterwards.
+     */
+    private void primeSignalDelivery() {
+        long start = System.nanoTime();
+        if (signalPriming == SignalPriming.LOOP_MODE) {
+            long signalCount = signalTracker.getSignalCount();
+            try {
+                // Bypasses the state cache, the call has to reach the speaker
+                LoopMode loopMode = LoopMode
+                        .parse(caller.read("Unable to retrieve loop mode", proxies.mediaPlayer()::getLoopMode));
+                stateCache.loopMode.set(loopMode);
+                logger.debug("Primed signal delivery of speaker " + this + " with loop mode in "
+                        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+                scheduleSignalCheck(proxies, signalCount);
+                return;
+            } catch (SpeakerException e) {
+                logger.debug("Unable to prime signal delivery with loop mode, falling back to playlist");
+            }
+        }
+        primeWithPlaylist(start);
+    }
+
+    private void primeWithPlaylist(long start) {
         try {
             getPlaylist();
+            logger.debug("Primed signal delivery of speaker " + this + " with playlist in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
         } catch (SpeakerException e) {
             logger.warn("Connection to speaker established but unable to get playlist. "
                     + "Speaker update receiving might fail.");
         }
     }
 
+    private void scheduleSignalCheck(SessionProxies session, long signalCount) {
+        AsyncCalls.getTimeoutScheduler().schedule(() -> {
+            if (proxies != session || !isConnected || signalTracker.getSignalCount() != signalCount) {
+                return;
+            }
+            logger.debug("No signal received from speaker " + this + " after priming with loop mode, "
+                    + "priming with playlist");
+            try {
+                calls.getExecutor().execute(() -> primeWithPlaylist(System.nanoTime()));
+            } catch (RejectedExecutionException e) {
+                logger.warn("Unable to prime signal delivery of speaker " + this + " with playlist, executor rejected");
+            }
+        }, SIGNAL_CHECK_DELAY_IN_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sets the call activating signal delivery after a session has been joined. Takes effect with the next connect.
+     * 
+     * @param priming
+     *            The {@link SignalPriming} to use, {@link SignalPriming#PLAYLIST} by default
+     */
+    public void setSignalPriming(SignalPriming priming) {
+        signalPriming = priming;
+    }
+
+    public SignalPriming getSignalPriming() {
+        return signalPriming;
+    }
+
     @Override
     public void disconnect() {
         isConnected = false;
+        reconnectSupervisor.cancel();
+        stateCache.invalidate();
+        playlistCache.invalidate();
+        uploadTracker.invalidate();
+        positionTracker.reset();
         busHandler.removeConnectionListener(this);
         busHandler.disconnect();
     }
@@ -116,6 +317,54 @@ public class RemoteSpeaker implements Speaker, SpeakerConnectionListener {
     @Override
     public void onConnectionLost(String hostName, int alljoynReasonCode) {
         isConnected = false;
+        stateCache.invalidate();
+        playlistCache.invalidate();
+        uploadTracker.invalidate();
+        positionTracker.reset();
+    }
+
+    @Override
+    public void setAutoReconnect(boolean enabled) {
+        reconnectSupervisor.setEnabled(enabled);
+    }
+
+    @Override
+    public boolean isAutoReconnect() {
+        return reconnectSupervisor.isEnabled();
+    }
+
+    @Override
+    public void enableStateCache(long maxAgeInMs) {
+        stateCache.enable(maxAgeInMs);
+    }
+
+    @Override
+    public void disableStateCache() {
+        stateCache.disable();
+    }
+
+    @Override
+    public void refreshState() throws SpeakerException {
+        stateCache.invalidate();
+        getPlayState();
+        getLoopMode();
+        getShuffleMode();
+        volume().getVolume();
+        volume().isMute();
+        volume().isControlEnabled();
+        try {
+            input().getActiveInput();
+        } catch (SpeakerException e) {
+            logger.debug("Speaker " + this + " does not provide an active input");
+        }
+    }
+
+    private void seedStateCache() {
+        try {
+            refreshState();
+        } catch (SpeakerException e) {
+            logger.warn("Unable to seed state cache of speaker " + this + ", values are read on demand", e);
+        }
     }
 
     @Override
@@ -129,182 +378,438 @@ public class RemoteSpeaker implements Speaker, SpeakerConnectionListener {
         busHandler.setSessionTimeout(sessionTimeoutInSec);
     }
 
+    @Override
+    public void setCoalescingCommands(boolean enabled) {
+        coalescingCommands = enabled;
+        SessionProxies current = proxies;
+        if (current != null) {
+            current.setCoalescingCommands(enabled);
+        }
+    }
+
+    @Override
+    public void setCommandErrorListener(CommandErrorListener listener) {
+        commandErrorListener = listener;
+    }
+
+    private void onCommandFailed(String command, Object value, Exception e) {
+        CommandErrorListener listener = commandErrorListener;
+        if (listener != null) {
+            listener.onCommandFailed(this, command, value, e);
+        }
+    }
+
+    /**
+     * @return Statistics of the coalesced commands by property name. Statistics of volume and mute are only available
+     *         once the {@link #volume()} of the current session has been used, and restart with each session.
+     */
+    public Map<String, CommandStatistics> getCommandStatistics() {
+        Map<String, CommandStatistics> statistics = new LinkedHashMap<>();
+        statistics.put(loopModeCommand.getName(), loopModeCommand.getStatistics());
+        statistics.put(shuffleModeCommand.getName(), shuffleModeCommand.getStatistics());
+        statistics.put(positionCommand.getName(), positionCommand.getStatistics());
+        SessionProxies current = proxies;
+        RemoteVolume volume = current == null ? null : current.existingVolume();
+        if (volume != null) {
+            statistics.put("volume", volume.getVolumeCommandStatistics());
+            statistics.put("mute", volume.getMuteCommandStatistics());
+        }
+        return statistics;
+    }
+
+    @Override
+    public void setCallPolicy(CallPolicy policy) {
+        caller.setPolicy(policy);
+        SessionProxies current = proxies;
+        if (current != null) {
+            current.applyReplyTimeouts(policy);
+        }
+    }
+
+    @Override
+    public CallPolicy getCallPolicy() {
+        return caller.getPolicy();
+    }
+
+    @Override
+    public CircuitBreaker circuitBreaker() {
+        return busHandler.getCircuitBreaker();
+    }
+
+    /**
+     * @return Number of reads which have actually been sent to the speaker
+     */
+    public long getExecutedReadCount() {
+        return caller.getExecutedReadCount();
+    }
+
+    /**
+     * @return Number of reads which joined an identical read in flight instead of being sent to the speaker
+     */
+    public long getCollapsedReadCount() {
+        return caller.getCollapsedReadCount();
+    }
+
+    @Override
+    public AsyncSpeaker async() {
+        return asyncSpeaker;
+    }
+
     @Override
     public Volume volume() {
-        return volume;
+        SessionProxies current = proxies;
+        return current == null ? null : current.volume(coalescingCommands);
     }
 
     @Override
     public ZoneManager zoneManager() {
-        return zoneManager;
+        SessionProxies current = proxies;
+        return current == null ? null : current.zoneManager();
     }
 
     @Override
     public Input input() {
-        return input;
+        SessionProxies current = proxies;
+        return current == null ? null : current.input();
     }
 
     @Override
     public RemotePlayerInfo getPlayerInfo() throws SpeakerException {
-        try {
-            return mediaPlayerInterface.getPlayerInfo();
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to retrieve player info", e);
-        }
+        return caller.readShared("PlayerInfo", "Unable to retrieve player info", proxies.mediaPlayer()::getPlayerInfo);
     }
 
     @Override
     public void play(int itemIndex, long offsetInMs, boolean paused) throws SpeakerException {
-        try {
-            mediaPlayerInterface.play(itemIndex, offsetInMs, paused);
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to play item", e);
-        }
+        caller.write("Unable to play item", () -> proxies.mediaPlayerWrite().play(itemIndex, offsetInMs, paused));
     }
 
     @Override
     public RemotePlaylist getPlaylist() throws SpeakerException {
+        RemotePlaylist cachedPlaylist = playlistCache.get();
+        if (cachedPlaylist != null) {
+            return cachedPlaylist;
+        }
+        MediaPlayerInterface mediaPlayer = proxies.mediaPlayer();
+        // The generation is taken by the call actually sent, so a joined read is not cached after an invalidation
+        PlaylistRead read = caller.readShared("Playlist", "Unable to retrieve playlist", () -> {
+            long generation = playlistCache.getGeneration();
+            long changeCount = uploadTracker.getChangeCount();
+            return new PlaylistRead(itemPool.intern(mediaPlayer.getPlaylist()), generation,
+                    changeCount);
+        });
+        RemotePlaylist playlist = read.playlist;
+        playlistCache.set(playlist, read.generation);
+        uploadTracker.recordPlaylist(PlaylistFingerprint.of(playlist.getPlaylistItems(), playlist.controllerType,
+                playlist.playlistUserData), read.changeCount);
+        return playlist;
+    }
+
+    /**
+     * A playlist together with the cache generation and change count taken before it has been read.
+     */
+    private static class PlaylistRead {
+        private final RemotePlaylist playlist;
+        private final long generation;
+        private final long changeCount;
+
+        PlaylistRead(RemotePlaylist playlist, long generation, long changeCount) {
+            this.playlist = playlist;
+            this.generation = generation;
+            this.changeCount = changeCount;
+        }
+    }
+
+    @Override
+    public List<PlaylistItem> getPlaylistItems(int fromIndex, int toIndex) throws SpeakerException {
+        return getPlaylist().getPlaylistItems(fromIndex, toIndex);
+    }
+
+    @Override
+    public List<PlaylistItem> getPlaylistItemsAroundCurrent(int before, int after) throws SpeakerException {
+        int currentIndex = Math.max(0, getPlayState().getIndexCurrentItem());
+        return getPlaylist().getPlaylistItems(currentIndex - before, currentIndex + after + 1);
+    }
+
+    @Override
+    public void setPlaylistCacheEnabled(boolean enabled) {
+        playlistCache.setEnabled(enabled);
+    }
+
+    /**
+     * @return The {@link PlaylistUploadTracker} of this speaker, counting sent and skipped playlist updates
+     */
+    public PlaylistUploadTracker getPlaylistUploadTracker() {
+        return uploadTracker;
+    }
+
+    /**
+     * @return The {@link PlaylistCache} of this speaker
+     */
+    public PlaylistCache getPlaylistCache() {
+        return playlistCache;
+    }
+
+    @Override
+    public SpeakerSnapshot getSnapshot() throws SpeakerException {
+        SessionProxies current = proxies;
+        CompletableFuture<Map<String, Variant>> volumeProperties = calls
+                .run(() -> caller.readShared("GetAll.Volume", "Unable to retrieve volume properties",
+                        () -> current.getAllProperties(VolumeInterface.class)), 0);
+        CompletableFuture<Map<String, Variant>> inputProperties = calls
+                .run(() -> caller.readShared("GetAll.InputSelector", "Unable to retrieve input properties",
+                        () -> current.getAllProperties(InputSelectorInterface.class)), 0);
+        Map<String, Variant> mediaPlayerProperties = caller.readShared("GetAll.MediaPlayer",
+                "Unable to retrieve media player properties",
+                () -> current.getAllProperties(MediaPlayerInterface.class));
+
+        RemotePlayState playState = itemPool
+                .intern(getProperty(mediaPlayerProperties, "PlayState", RemotePlayState.class));
+        LoopMode loopMode = LoopMode.parse(getProperty(mediaPlayerProperties, "LoopMode", String.class));
+        ShuffleMode shuffleMode = ShuffleMode.parse(getProperty(mediaPlayerProperties, "ShuffleMode", String.class));
+
+        Map<String, Variant> volumeValues = await(volumeProperties);
+        int volume = getProperty(volumeValues, "Volume", Short.class);
+        boolean mute = getProperty(volumeValues, "Mute", Boolean.class);
+        boolean controlEnabled = getProperty(volumeValues, "Enabled", Boolean.class);
+
+        String activeInput = null;
+        List<String> inputList = Collections.emptyList();
+        try {
+            Map<String, Variant> inputValues = await(inputProperties);
+            activeInput = getProperty(inputValues, "ActiveInput", String.class);
+            inputList = Arrays.asList(getProperty(inputValues, "InputList", String[].class));
+        } catch (SpeakerException e) {
+            logger.debug("Speaker " + this + " does not provide input properties");
+        }
+
+        stateCache.playState.set(playState);
+        positionTracker.update(playState);
+        stateCache.loopMode.set(loopMode);
+        stateCache.shuffleMode.set(shuffleMode);
+        stateCache.volume.set(volume);
+        stateCache.mute.set(mute);
+        stateCache.controlEnabled.set(controlEnabled);
+        stateCache.activeInput.set(activeInput);
+        return new SpeakerSnapshot(playState, loopMode, shuffleMode, volume, mute, controlEnabled, activeInput,
+                inputList);
+    }
+
+    private static <T> T getProperty(Map<String, Variant> properties, String name, Class<T> type)
+            throws SpeakerException {
+        Variant value = properties.get(name);
+        if (value == null) {
+            throw new SpeakerException("Property " + name + " not provided by speaker");
+        }
         try {
-            return mediaPlayerInterface.getPlaylist();
+            return value.getObject(type);
         } catch (BusException e) {
-            throw new SpeakerException("Unable to retrieve playlist", e);
+            throw new SpeakerException("Unable to read property " + name, e);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws SpeakerException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SpeakerException) {
+                throw (SpeakerException) e.getCause();
+            }
+            throw new SpeakerException("Unable to retrieve properties", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SpeakerException("Interrupted while retrieving properties", e);
         }
     }
 
     @Override
     public RemotePlayState getPlayState() throws SpeakerException {
-        try {
-            return mediaPlayerInterface.getPlayState();
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to retrieve play state", e);
+        RemotePlayState cachedPlayState = stateCache.playState.get();
+        if (cachedPlayState != null) {
+            return cachedPlayState;
         }
+        MediaPlayerInterface mediaPlayer = proxies.mediaPlayer();
+        RemotePlayState playState = caller.readShared("PlayState", "Unable to retrieve play state",
+                () -> itemPool.intern(mediaPlayer.getPlayState()));
+        stateCache.playState.set(playState);
+        positionTracker.update(playState);
+        return playState;
+    }
+
+    @Override
+    public long getCurrentPositionInMs() throws SpeakerException {
+        if (!positionTracker.hasPosition()) {
+            positionTracker.update(getPlayState());
+        }
+        return positionTracker.getPositionInMs();
+    }
+
+    @Override
+    public void addPlaybackProgressListener(PlaybackProgressListener listener, long intervalInMs) {
+        positionTracker.addProgressListener(listener, intervalInMs);
+    }
+
+    @Override
+    public void removePlaybackProgressListener(PlaybackProgressListener listener) {
+        positionTracker.removeProgressListener(listener);
     }
 
     @Override
     public LoopMode getLoopMode() throws SpeakerException {
-        try {
-            return LoopMode.parse(mediaPlayerInterface.getLoopMode());
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to retrieve loop mode", e);
+        LoopMode cachedLoopMode = stateCache.loopMode.get();
+        if (cachedLoopMode != null) {
+            return cachedLoopMode;
         }
+        LoopMode loopMode = LoopMode.parse(
+                caller.readShared("LoopMode", "Unable to retrieve loop mode", proxies.mediaPlayer()::getLoopMode));
+        stateCache.loopMode.set(loopMode);
+        return loopMode;
     }
 
     @Override
     public ShuffleMode getShuffleMode() throws SpeakerException {
-        try {
-            return ShuffleMode.parse(mediaPlayerInterface.getShuffleMode());
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to retrieve shuffle mode", e);
+        ShuffleMode cachedShuffleMode = stateCache.shuffleMode.get();
+        if (cachedShuffleMode != null) {
+            return cachedShuffleMode;
         }
+        ShuffleMode shuffleMode = ShuffleMode.parse(caller.readShared("ShuffleMode", "Unable to retrieve shuffle mode",
+                proxies.mediaPlayer()::getShuffleMode));
+        stateCache.shuffleMode.set(shuffleMode);
+        return shuffleMode;
     }
 
     @Override
     public void setLoopMode(LoopMode loopMode) throws SpeakerException {
-        try {
-            mediaPlayerInterface.setLoopMode(loopMode.toString());
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to set loop mode to " + loopMode, e);
+        if (coalescingCommands) {
+            loopModeCommand.submit(loopMode);
+        } else {
+            applySetLoopMode(loopMode);
         }
     }
 
+    private void applySetLoopMode(LoopMode loopMode) throws SpeakerException {
+        caller.write("Unable to set loop mode to " + loopMode,
+                () -> proxies.mediaPlayerWrite().setLoopMode(loopMode.toString()));
+        stateCache.loopMode.set(loopMode);
+    }
+
     @Override
     public void setShuffleMode(ShuffleMode shuffleMode) throws SpeakerException {
-        try {
-            mediaPlayerInterface.setShuffleMode(shuffleMode.toString());
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to set shuffle mode to " + shuffleMode, e);
+        if (coalescingCommands) {
+            shuffleModeCommand.submit(shuffleMode);
+        } else {
+            applySetShuffleMode(shuffleMode);
         }
     }
 
+    private void applySetShuffleMode(ShuffleMode shuffleMode) throws SpeakerException {
+        caller.write("Unable to set shuffle mode to " + shuffleMode,
+                () -> proxies.mediaPlayerWrite().setShuffleMode(shuffleMode.toString()));
+        stateCache.shuffleMode.set(shuffleMode);
+    }
+
     @Override
     public void next() throws SpeakerException {
         logger.debug("Setting speaker to next");
-        try {
-            mediaPlayerInterface.next();
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to play next", e);
-        }
+        caller.write("Unable to play next", proxies.mediaPlayerWrite()::next);
     }
 
     @Override
     public void previous() throws SpeakerException {
         logger.debug("Setting speaker to previous");
-        try {
-            mediaPlayerInterface.previous();
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to play previous", e);
-        }
+        caller.write("Unable to play previous", proxies.mediaPlayerWrite()::previous);
     }
 
     @Override
     public void forcePrevious() throws SpeakerException {
         logger.debug("Setting speaker to force previous");
-        try {
-            mediaPlayerInterface.forcePrevious();
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to force previous", e);
-        }
+        caller.write("Unable to force previous", proxies.mediaPlayerWrite()::forcePrevious);
     }
 
     @Override
     public void pause() throws SpeakerException {
         logger.debug("Setting speaker to pause");
-        try {
-            mediaPlayerInterface.pause();
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to pause", e);
-        }
+        caller.write("Unable to pause", proxies.mediaPlayerWrite()::pause);
     }
 
     @Override
     public void resume() throws SpeakerException {
         logger.debug("Setting speaker to resume");
-        try {
-            mediaPlayerInterface.resume();
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to resume", e);
-        }
+        caller.write("Unable to resume", proxies.mediaPlayerWrite()::resume);
     }
 
     @Override
     public void stop() throws SpeakerException {
         logger.debug("Setting speaker to stop");
-        try {
-            mediaPlayerInterface.stop();
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to stop", e);
-        }
+        caller.write("Unable to stop", proxies.mediaPlayerWrite()::stop);
     }
 
     @Override
     public void setPosition(long offsetInMs) throws SpeakerException {
-        logger.debug("Setting speaker to positon offset " + offsetInMs);
-        try {
-            mediaPlayerInterface.setPosition(offsetInMs);
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to set position to " + offsetInMs, e);
+        if (coalescingCommands) {
+            positionCommand.submit(offsetInMs);
+        } else {
+            applySetPosition(offsetInMs);
         }
     }
 
+    private void applySetPosition(long offsetInMs) throws SpeakerException {
+        logger.debug("Setting speaker to positon offset " + offsetInMs);
+        caller.write("Unable to set position to " + offsetInMs,
+                () -> proxies.mediaPlayerWrite().setPosition(offsetInMs));
+        positionTracker.seek(offsetInMs);
+    }
+
     @Override
     public void updatePlaylist(List<PlaylistItem> playlistItems, int index, String controllerType,
             String playlistUserData) throws SpeakerException {
+        Long fingerprint = PlaylistFingerprint.of(playlistItems, controllerType, playlistUserData);
+        if (uploadTracker.needsVerification(fingerprint)) {
+            getPlaylist();
+        }
+        if (uploadTracker.isCurrent(fingerprint) && updateIndexOnly(index)) {
+            return;
+        }
         logger.debug("Setting new playlist on spekaer");
-        try {
-            mediaPlayerInterface.updatePlaylist(playlistItems.toArray(new PlaylistItem[playlistItems.size()]), index,
-                    controllerType, playlistUserData);
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to update playlist", e);
+        playlistCache.invalidate();
+        caller.write("Unable to update playlist",
+                () -> proxies.mediaPlayerWrite().updatePlaylist(
+                        playlistItems.toArray(new PlaylistItem[playlistItems.size()]), index, controllerType,
+                        playlistUserData));
+        uploadTracker.recordUpload(fingerprint);
+    }
+
+    /**
+     * Applies an update of a playlist the speaker already has.
+     * 
+     * @return True if the update has been applied, false if the complete playlist needs to be sent
+     */
+    private boolean updateIndexOnly(int index) throws SpeakerException {
+        State state = uploadTracker.getState();
+        int currentIndex = uploadTracker.getIndex();
+        if (state == State.UNKNOWN || currentIndex < 0) {
+            RemotePlayState playState = getPlayState();
+            uploadTracker.recordPlayState(playState);
+            state = playState.getState();
+            currentIndex = playState.getIndexCurrentItem();
+        }
+        // Compared with the index reported by the speaker, which might differ from the one last sent
+        if (currentIndex >= 0 && index == currentIndex) {
+            logger.debug("Skipping playlist update of speaker " + this + ", playlist is unchanged");
+            uploadTracker.recordSkipped();
+            return true;
         }
+        if (state != State.PLAYING && state != State.PAUSED) {
+            return false;
+        }
+        play(index, 0, state == State.PAUSED);
+        uploadTracker.recordIndexChange();
+        return true;
     }
 
     @Override
     public void playItem(String url) throws SpeakerException {
-        try {
-            mcuInterface.playItem(url, "", "", "", 0, "", "");
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to play item", e);
-        }
+        playlistCache.invalidate();
+        caller.write("Unable to play item", () -> proxies.mcu().playItem(url, "", "", "", 0, "", ""));
     }
 
     @Override
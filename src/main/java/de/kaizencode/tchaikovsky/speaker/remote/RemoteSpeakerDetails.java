@@ -17,6 +17,7 @@
 package de.kaizencode.tchaikovsky.speaker.remote;
 
 import java.nio.ByteBuffer;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
@@ -39,6 +40,21 @@ public class RemoteSpeakerDetails implements SpeakerDetails {
     private String softwareVersion;
     private String allJoynSdkVersion;
 
+    private static final String KEY_WELL_KNOWN_NAME = "WellKnownName";
+    private static final String KEY_APP_ID = "AppId";
+    private static final String KEY_DEFAULT_LANGUAGE = "DefaultLanguage";
+    private static final String KEY_DEVICE_NAME = "DeviceName";
+    private static final String KEY_DEVICE_ID = "DeviceId";
+    private static final String KEY_APP_NAME = "AppName";
+    private static final String KEY_MANUFACTURER = "Manufacturer";
+    private static final String KEY_MODEL_NUMBER = "ModelNumber";
+    private static final String KEY_DESCRIPTION = "Description";
+    private static final String KEY_SOFTWARE_VERSION = "SoftwareVersion";
+    private static final String KEY_AJ_SOFTWARE_VERSION = "AJSoftwareVersion";
+
+    private RemoteSpeakerDetails() {
+    }
+
     public RemoteSpeakerDetails(Map<String, Variant> aboutData) throws BusException {
         parseAboutData(aboutData);
     }
@@ -48,17 +64,69 @@ public class RemoteSpeakerDetails implements SpeakerDetails {
         this.wellKnownName = wellKnownName;
     }
 
+    /**
+     * Restores speaker details from a map previously created by {@link #toStringMap()}.
+     * 
+     * @param values
+     *            Map containing the string values of the speaker details
+     * @return The restored {@link RemoteSpeakerDetails}
+     * @throws IllegalArgumentException
+     *             if the map does not contain a device ID or a valid app ID
+     */
+    public static RemoteSpeakerDetails fromStringMap(Map<String, String> values) {
+        RemoteSpeakerDetails details = new RemoteSpeakerDetails();
+        details.deviceId = values.get(KEY_DEVICE_ID);
+        if (details.deviceId == null || details.deviceId.isEmpty()) {
+            throw new IllegalArgumentException("Speaker details without device ID");
+        }
+        details.wellKnownName = values.get(KEY_WELL_KNOWN_NAME);
+        String appIdValue = values.get(KEY_APP_ID);
+        details.appId = appIdValue == null ? null : UUID.fromString(appIdValue);
+        details.defaultLanguage = getOrEmpty(values, KEY_DEFAULT_LANGUAGE);
+        details.deviceName = getOrEmpty(values, KEY_DEVICE_NAME);
+        details.appName = getOrEmpty(values, KEY_APP_NAME);
+        details.manufacturer = getOrEmpty(values, KEY_MANUFACTURER);
+        details.modelNumber = getOrEmpty(values, KEY_MODEL_NUMBER);
+        details.description = getOrEmpty(values, KEY_DESCRIPTION);
+        details.softwareVersion = getOrEmpty(values, KEY_SOFTWARE_VERSION);
+        details.allJoynSdkVersion = getOrEmpty(values, KEY_AJ_SOFTWARE_VERSION);
+        return details;
+    }
+
+    /**
+     * @return The speaker details as a map of strings, e.g. for persisting them
+     */
+    public Map<String, String> toStringMap() {
+        Map<String, String> values = new HashMap<>();
+        if (wellKnownName != null) {
+            values.put(KEY_WELL_KNOWN_NAME, wellKnownName);
+        }
+        if (appId != null) {
+            values.put(KEY_APP_ID, appId.toString());
+        }
+        values.put(KEY_DEFAULT_LANGUAGE, defaultLanguage);
+        values.put(KEY_DEVICE_NAME, deviceName);
+        values.put(KEY_DEVICE_ID, deviceId);
+        values.put(KEY_APP_NAME, appName);
+        values.put(KEY_MANUFACTURER, manufacturer);
+        values.put(KEY_MODEL_NUMBER, modelNumber);
+        values.put(KEY_DESCRIPTION, description);
+        values.put(KEY_SOFTWARE_VERSION, softwareVersion);
+        values.put(KEY_AJ_SOFTWARE_VERSION, allJoynSdkVersion);
+        return values;
+    }
+
     private void parseAboutData(Map<String, Variant> aboutData) throws BusException {
-        appId = getGuidFromByteArray(aboutData.get("AppId").getObject(byte[].class));
-        defaultLanguage = getAsString(aboutData, "DefaultLanguage");
-        deviceName = getAsString(aboutData, "DeviceName");
-        deviceId = getAsString(aboutData, "DeviceId");
-        appName = getAsString(aboutData, "AppName");
-        manufacturer = getAsString(aboutData, "Manufacturer");
-        modelNumber = getAsString(aboutData, "ModelNumber");
-        description = getAsString(aboutData, "Description");
-        softwareVersion = getAsString(aboutData, "SoftwareVersion");
-        allJoynSdkVersion = getAsString(aboutData, "AJSoftwareVersion");
+        appId = getGuidFromByteArray(aboutData.get(KEY_APP_ID).getObject(byte[].class));
+        defaultLanguage = getAsString(aboutData, KEY_DEFAULT_LANGUAGE);
+        deviceName = getAsString(aboutData, KEY_DEVICE_NAME);
+        deviceId = getAsString(aboutData, KEY_DEVICE_ID);
+        appName = getAsString(aboutData, KEY_APP_NAME);
+        manufacturer = getAsString(aboutData, KEY_MANUFACTURER);
+        modelNumber = getAsString(aboutData, KEY_MODEL_NUMBER);
+        description = getAsString(aboutData, KEY_DESCRIPTION);
+        softwareVersion = getAsString(aboutData, KEY_SOFTWARE_VERSION);
+        allJoynSdkVersion = getAsString(aboutData, KEY_AJ_SOFTWARE_VERSION);
     }
 
     public String getWellKnownName() {
@@ -123,6 +191,11 @@ public class RemoteSpeakerDetails implements SpeakerDetails {
         return value;
     }
 
+    private static String getOrEmpty(Map<String, String> values, String key) {
+        String value = values.get(key);
+        return value == null ? "" : value;
+    }
+
     @Override
     public String toString() {
         return deviceName + " (" + deviceId + ")";
@@ -16,11 +16,15 @@
  */
 package de.kaizencode.tchaikovsky.speaker.remote;
 
-import org.alljoyn.bus.BusException;
+import java.util.concurrent.Executor;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import de.kaizencode.tchaikovsky.businterface.VolumeInterface;
+import de.kaizencode.tchaikovsky.concurrent.AsyncCalls;
+import de.kaizencode.tchaikovsky.concurrent.CommandStatistics;
+import de.kaizencode.tchaikovsky.concurrent.LatestValueCommand;
 import de.kaizencode.tchaikovsky.exception.SpeakerException;
 import de.kaizencode.tchaikovsky.speaker.Volume;
 import de.kaizencode.tchaikovsky.speaker.VolumeRange;
@@ -29,83 +33,161 @@ public class RemoteVolume implements Volume {
 
     private final Logger logger = LoggerFactory.getLogger(RemoteVolume.class);
     private final VolumeInterface volumeInterface;
+    private final VolumeInterface volumeWriteInterface;
+    private final SpeakerStateCache stateCache;
+    private final BusCaller caller;
+
+    private volatile boolean coalescingCommands = false;
+    private final LatestValueCommand<Integer> volumeCommand;
+    private final LatestValueCommand<Boolean> muteCommand;
 
     public RemoteVolume(VolumeInterface volumeInterface) {
+        this(volumeInterface, new SpeakerStateCache());
+    }
+
+    public RemoteVolume(VolumeInterface volumeInterface, SpeakerStateCache stateCache) {
+        this(volumeInterface, volumeInterface, stateCache, new BusCaller(), AsyncCalls.getDefault().getExecutor());
+    }
+
+    /**
+     * @param volumeInterface
+     *            Interface used for reads
+     * @param volumeWriteInterface
+     *            Interface used for writes, which may have a different reply timeout
+     * @param stateCache
+     *            The {@link SpeakerStateCache} of the speaker
+     * @param caller
+     *            The {@link BusCaller} applying the call policy of the speaker
+     * @param executor
+     *            The {@link Executor} coalesced commands are applied on
+     */
+    RemoteVolume(VolumeInterface volumeInterface, VolumeInterface volumeWriteInterface, SpeakerStateCache stateCache,
+            BusCaller caller, Executor executor) {
         this.volumeInterface = volumeInterface;
+        this.volumeWriteInterface = volumeWriteInterface;
+        this.stateCache = stateCache;
+        this.caller = caller;
+        this.volumeCommand = new LatestValueCommand<>("volume", this::applySetVolume, executor);
+        this.muteCommand = new LatestValueCommand<>("mute", this::applyMute, executor);
+    }
+
+    /**
+     * Enables or disables coalescing of {@link #setVolume(int)} and {@link #mute(boolean)}, see
+     * {@link de.kaizencode.tchaikovsky.speaker.Speaker#setCoalescingCommands(boolean)}.
+     * 
+     * @param enabled
+     *            True to enable coalescing
+     */
+    public void setCoalescingCommands(boolean enabled) {
+        coalescingCommands = enabled;
+    }
+
+    /**
+     * Sets the handler informed about coalesced values which could not be applied.
+     * 
+     * @param handler
+     *            The {@link LatestValueCommand.ErrorHandler} to inform, or null to only log errors
+     */
+    public void setCommandErrorHandler(LatestValueCommand.ErrorHandler handler) {
+        volumeCommand.setErrorHandler(handler);
+        muteCommand.setErrorHandler(handler);
+    }
+
+    /**
+     * @return Statistics of coalesced {@link #setVolume(int)} calls
+     */
+    public CommandStatistics getVolumeCommandStatistics() {
+        return volumeCommand.getStatistics();
+    }
+
+    /**
+     * @return Statistics of coalesced {@link #mute(boolean)} calls
+     */
+    public CommandStatistics getMuteCommandStatistics() {
+        return muteCommand.getStatistics();
     }
 
     @Override
     public int getVolume() throws SpeakerException {
-        try {
-            return volumeInterface.getVolume();
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to receive volume", e);
+        Integer cachedVolume = stateCache.volume.get();
+        if (cachedVolume != null) {
+            return cachedVolume;
         }
+        int volume = caller.readShared("Volume", "Unable to receive volume", volumeInterface::getVolume);
+        stateCache.volume.set(volume);
+        return volume;
     }
 
     @Override
     public void setVolume(int volume) throws SpeakerException {
-        logger.debug("Setting speaker to volume " + volume);
-        try {
-            volumeInterface.setVolume((short) volume);
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to set volume to " + volume, e);
+        if (coalescingCommands) {
+            volumeCommand.submit(volume);
+        } else {
+            applySetVolume(volume);
         }
     }
 
+    private void applySetVolume(int volume) throws SpeakerException {
+        logger.debug("Setting speaker to volume " + volume);
+        caller.write("Unable to set volume to " + volume, () -> volumeWriteInterface.setVolume((short) volume));
+        stateCache.volume.set(volume);
+    }
+
     @Override
     public VolumeRange getVolumeRange() throws SpeakerException {
-        try {
-            return volumeInterface.getVolumeRange();
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to receive volume range", e);
-        }
+        return caller.readShared("VolumeRange", "Unable to receive volume range", volumeInterface::getVolumeRange);
     }
 
     @Override
     public boolean isMute() throws SpeakerException {
-        try {
-            return volumeInterface.getMute();
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to receive mute", e);
+        Boolean cachedMute = stateCache.mute.get();
+        if (cachedMute != null) {
+            return cachedMute;
         }
+        boolean mute = caller.readShared("Mute", "Unable to receive mute", volumeInterface::getMute);
+        stateCache.mute.set(mute);
+        return mute;
     }
 
     @Override
     public void mute(boolean mute) throws SpeakerException {
-        logger.debug("Setting speaker to mute " + mute);
-        try {
-            volumeInterface.setMute(mute);
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to set mute to " + mute, e);
+        if (coalescingCommands) {
+            muteCommand.submit(mute);
+        } else {
+            applyMute(mute);
         }
     }
 
+    private void applyMute(boolean mute) throws SpeakerException {
+        logger.debug("Setting speaker to mute " + mute);
+        caller.write("Unable to set mute to " + mute, () -> volumeWriteInterface.setMute(mute));
+        stateCache.mute.set(mute);
+    }
+
     @Override
     public boolean isControlEnabled() throws SpeakerException {
-        try {
-            return volumeInterface.getEnabled();
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to receive if control is enabled", e);
+        Boolean cachedEnabled = stateCache.controlEnabled.get();
+        if (cachedEnabled != null) {
+            return cachedEnabled;
         }
+        boolean enabled = caller.readShared("VolumeEnabled",
+                "Unable to receive if control is enabled", volumeInterface::getEnabled);
+        stateCache.controlEnabled.set(enabled);
+        return enabled;
     }
 
     @Override
     public void adjustVolume(int delta) throws SpeakerException {
-        try {
-            volumeInterface.adjustVolume((short) delta);
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to adjust volume by " + delta + " increments", e);
-        }
+        stateCache.volume.invalidate();
+        caller.write("Unable to adjust volume by " + delta + " increments",
+                () -> volumeWriteInterface.adjustVolume((short) delta));
     }
 
     @Override
     public void adjustVolumePercent(double percent) throws SpeakerException {
-        try {
-            volumeInterface.adjustVolumePercent(percent);
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to adjust volume by " + percent + "%", e);
-        }
+        stateCache.volume.invalidate();
+        caller.write("Unable to adjust volume by " + percent + "%",
+                () -> volumeWriteInterface.adjustVolumePercent(percent));
     }
 
 }
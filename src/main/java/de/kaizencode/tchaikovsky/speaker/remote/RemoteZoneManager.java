@@ -19,8 +19,6 @@ package de.kaizencode.tchaikovsky.speaker.remote;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.alljoyn.bus.BusException;
-
 import de.kaizencode.tchaikovsky.AllPlay;
 import de.kaizencode.tchaikovsky.businterface.ZoneManagerInterface;
 import de.kaizencode.tchaikovsky.exception.SpeakerException;
@@ -30,40 +28,45 @@ import de.kaizencode.tchaikovsky.speaker.ZoneManager;
 public class RemoteZoneManager implements ZoneManager {
 
     private final ZoneManagerInterface zoneManagerInterface;
+    private final ZoneManagerInterface zoneManagerWriteInterface;
+    private final BusCaller caller;
 
     public RemoteZoneManager(ZoneManagerInterface zoneManagerInterface) {
+        this(zoneManagerInterface, zoneManagerInterface, new BusCaller());
+    }
+
+    /**
+     * @param zoneManagerInterface
+     *            Interface used for reads
+     * @param zoneManagerWriteInterface
+     *            Interface used for writes, which may have a different reply timeout
+     * @param caller
+     *            The {@link BusCaller} applying the call policy of the speaker
+     */
+    RemoteZoneManager(ZoneManagerInterface zoneManagerInterface, ZoneManagerInterface zoneManagerWriteInterface,
+            BusCaller caller) {
         this.zoneManagerInterface = zoneManagerInterface;
+        this.zoneManagerWriteInterface = zoneManagerWriteInterface;
+        this.caller = caller;
     }
 
     @Override
     public boolean getEnabled() throws SpeakerException {
-        try {
-            return zoneManagerInterface.getEnabled();
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to receive enabled", e);
-        }
+        return caller.readShared("ZoneEnabled", "Unable to receive enabled", zoneManagerInterface::getEnabled);
     }
 
     @Override
     public short getVersion() throws SpeakerException {
-        try {
-            return zoneManagerInterface.getVersion();
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to receive version", e);
-        }
+        return caller.readShared("ZoneVersion", "Unable to receive version", zoneManagerInterface::getVersion);
     }
 
     @Override
     public ZoneItem createZone(List<String> deviceIds) throws SpeakerException {
-        try {
-            String[] speakers = new String[deviceIds.size()];
-            for (int i = 0; i < deviceIds.size(); i++) {
-                speakers[i] = AllPlay.WELL_KNOWN_NAME_PREFIX + deviceIds.get(i);
-            }
-            return zoneManagerInterface.createZone(speakers);
-        } catch (BusException e) {
-            throw new SpeakerException("Unable to create zone", e);
+        String[] speakers = new String[deviceIds.size()];
+        for (int i = 0; i < deviceIds.size(); i++) {
+            speakers[i] = AllPlay.WELL_KNOWN_NAME_PREFIX + deviceIds.get(i);
         }
+        return caller.write("Unable to create zone", () -> zoneManagerWriteInterface.createZone(speakers));
     }
 
     @Override
@@ -0,0 +1,172 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.speaker.remote;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import org.alljoyn.bus.BusException;
+import org.alljoyn.bus.ProxyBusObject;
+import org.alljoyn.bus.Variant;
+
+import de.kaizencode.tchaikovsky.bus.SpeakerBusHandler;
+import de.kaizencode.tchaikovsky.businterface.InputSelectorInterface;
+import de.kaizencode.tchaikovsky.businterface.MCUInterface;
+import de.kaizencode.tchaikovsky.businterface.MediaPlayerInterface;
+import de.kaizencode.tchaikovsky.businterface.VolumeInterface;
+import de.kaizencode.tchaikovsky.businterface.ZoneManagerInterface;
+import de.kaizencode.tchaikovsky.concurrent.LatestValueCommand;
+import de.kaizencode.tchaikovsky.speaker.CallPolicy;
+import de.kaizencode.tchaikovsky.speaker.CallPolicy.OperationClass;
+
+/**
+ * Proxies of a single session of a {@link RemoteSpeaker}. Only the media player interface used for reads is created
+ * with the session, the proxy object for writes, all other interfaces and their wrappers are created on first use.
+ * Reads and writes use separate proxy objects, so that each can have its own reply timeout.
+ * 
+ * @author Dominic Lerbs
+ */
+class SessionProxies {
+
+    private final SpeakerBusHandler busHandler;
+    private final SpeakerStateCache stateCache;
+    private final BusCaller caller;
+    private final Executor executor;
+    private final LatestValueCommand.ErrorHandler commandErrorHandler;
+
+    private final ProxyBusObject readObject;
+    private final MediaPlayerInterface mediaPlayer;
+
+    private ProxyBusObject writeObject;
+    private MediaPlayerInterface mediaPlayerWrite;
+    private MCUInterface mcu;
+    private RemoteVolume volume;
+    private RemoteZoneManager zoneManager;
+    private RemoteInput input;
+
+    /**
+     * @param busHandler
+     *            The {@link SpeakerBusHandler} of the speaker, used for creating the write proxy object
+     * @param readObject
+     *            The {@link ProxyBusObject} of the session, used for reads
+     * @param stateCache
+     *            The {@link SpeakerStateCache} of the speaker
+     * @param caller
+     *            The {@link BusCaller} of the speaker
+     * @param executor
+     *            The {@link Executor} of the speaker, used for coalesced commands
+     * @param commandErrorHandler
+     *            The {@link LatestValueCommand.ErrorHandler} informed about coalesced commands which failed
+     */
+    SessionProxies(SpeakerBusHandler busHandler, ProxyBusObject readObject, SpeakerStateCache stateCache,
+            BusCaller caller, Executor executor, LatestValueCommand.ErrorHandler commandErrorHandler) {
+        this.busHandler = busHandler;
+        this.readObject = readObject;
+        this.stateCache = stateCache;
+        this.caller = caller;
+        this.executor = executor;
+        this.commandErrorHandler = commandErrorHandler;
+        readObject.setReplyTimeout(caller.getPolicy().getTimeoutInMs(OperationClass.READ));
+        mediaPlayer = readObject.getInterface(MediaPlayerInterface.class);
+    }
+
+    MediaPlayerInterface mediaPlayer() {
+        return mediaPlayer;
+    }
+
+    /**
+     * Retrieves all properties of the given interface with a single org.freedesktop.DBus.Properties.GetAll call.
+     * 
+     * @param busInterface
+     *            The bus interface to retrieve the properties of
+     * @return The properties by name
+     * @throws BusException
+     *             if the properties cannot be retrieved
+     */
+    Map<String, Variant> getAllProperties(Class<?> busInterface) throws BusException {
+        return readObject.getAllProperties(busInterface);
+    }
+
+    synchronized MediaPlayerInterface mediaPlayerWrite() {
+        if (mediaPlayerWrite == null) {
+            mediaPlayerWrite = writeObject().getInterface(MediaPlayerInterface.class);
+        }
+        return mediaPlayerWrite;
+    }
+
+    synchronized MCUInterface mcu() {
+        if (mcu == null) {
+            mcu = writeObject().getInterface(MCUInterface.class);
+        }
+        return mcu;
+    }
+
+    synchronized RemoteVolume volume(boolean coalescingCommands) {
+        if (volume == null) {
+            volume = new RemoteVolume(readObject.getInterface(VolumeInterface.class),
+                    writeObject().getInterface(VolumeInterface.class), stateCache, caller, executor);
+            volume.setCoalescingCommands(coalescingCommands);
+            volume.setCommandErrorHandler(commandErrorHandler);
+        }
+        return volume;
+    }
+
+    /**
+     * @return The {@link RemoteVolume} if it has already been created, else null
+     */
+    synchronized RemoteVolume existingVolume() {
+        return volume;
+    }
+
+    synchronized RemoteZoneManager zoneManager() {
+        if (zoneManager == null) {
+            zoneManager = new RemoteZoneManager(readObject.getInterface(ZoneManagerInterface.class),
+                    writeObject().getInterface(ZoneManagerInterface.class), caller);
+        }
+        return zoneManager;
+    }
+
+    synchronized RemoteInput input() {
+        if (input == null) {
+            input = new RemoteInput(readObject.getInterface(InputSelectorInterface.class),
+                    writeObject().getInterface(InputSelectorInterface.class), stateCache, caller);
+        }
+        return input;
+    }
+
+    synchronized void setCoalescingCommands(boolean enabled) {
+        if (volume != null) {
+            volume.setCoalescingCommands(enabled);
+        }
+    }
+
+    synchronized void applyReplyTimeouts(CallPolicy policy) {
+        readObject.setReplyTimeout(policy.getTimeoutInMs(OperationClass.READ));
+        if (writeObject != null) {
+            writeObject.setReplyTimeout(policy.getTimeoutInMs(OperationClass.WRITE));
+        }
+    }
+
+    private ProxyBusObject writeObject() {
+        if (writeObject == null) {
+            writeObject = busHandler.createProxyBusObject();
+            writeObject.setReplyTimeout(caller.getPolicy().getTimeoutInMs(OperationClass.WRITE));
+        }
+        return writeObject;
+    }
+
+}
@@ -0,0 +1,89 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.speaker.remote;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.kaizencode.tchaikovsky.listener.SpeakerChangedListener;
+import de.kaizencode.tchaikovsky.speaker.PlayState;
+import de.kaizencode.tchaikovsky.speaker.Speaker.LoopMode;
+import de.kaizencode.tchaikovsky.speaker.Speaker.ShuffleMode;
+
+/**
+ * Counts the signals received from a speaker, to detect whether signal delivery has been activated after a session
+ * has been joined.
+ * 
+ * @author Dominic Lerbs
+ */
+class SignalActivityTracker implements SpeakerChangedListener {
+
+    private final AtomicLong signalCount = new AtomicLong();
+
+    /**
+     * @return Number of signals received since creation
+     */
+    long getSignalCount() {
+        return signalCount.get();
+    }
+
+    @Override
+    public void onLoopModeChanged(LoopMode loopMode) {
+        signalCount.incrementAndGet();
+    }
+
+    @Override
+    public void onPlaylistChanged() {
+        signalCount.incrementAndGet();
+    }
+
+    @Override
+    public void onPlayStateChanged(PlayState playState) {
+        signalCount.incrementAndGet();
+    }
+
+    @Override
+    public void onShuffleModeChanged(ShuffleMode shuffleMode) {
+        signalCount.incrementAndGet();
+    }
+
+    @Override
+    public void onVolumeChanged(int volume) {
+        signalCount.incrementAndGet();
+    }
+
+    @Override
+    public void onMuteChanged(boolean mute) {
+        signalCount.incrementAndGet();
+    }
+
+    @Override
+    public void onVolumeControlChanged(boolean enabled) {
+        signalCount.incrementAndGet();
+    }
+
+    @Override
+    public void onZoneChanged(String zoneId, int timestamp, Map<String, Integer> slaves) {
+        signalCount.incrementAndGet();
+    }
+
+    @Override
+    public void onInputChanged(String input) {
+        signalCount.incrementAndGet();
+    }
+
+}
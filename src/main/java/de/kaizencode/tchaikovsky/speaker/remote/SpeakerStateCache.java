@@ -0,0 +1,166 @@
+/**
+ * Tchaikovsky - A Java library for controlling AllPlay-compatible devices.
+ * Copyright (c) 2017 Dominic Lerbs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.kaizencode.tchaikovsky.speaker.remote;
+
+import java.util.concurrent.TimeUnit;
+
+import de.kaizencode.tchaikovsky.listener.SpeakerChangedAdapter;
+import de.kaizencode.tchaikovsky.speaker.PlayState;
+import de.kaizencode.tchaikovsky.speaker.Speaker.LoopMode;
+import de.kaizencode.tchaikovsky.speaker.Speaker.ShuffleMode;
+
+/**
+ * Local cache of the speaker state, kept up to date by the signals sent by the speaker. If enabled, property getters
+ * of {@link RemoteSpeaker}, {@link RemoteVolume} and {@link RemoteInput} are served from this cache instead of
+ * performing a bus call. Values older than the configured maximum age are considered stale and read from the speaker
+ * again.
+ * 
+ * @author Dominic Lerbs
+ */
+public class SpeakerStateCache extends SpeakerChangedAdapter {
+
+    private volatile long maxAgeInNs = -1;
+
+    final CachedValue<LoopMode> loopMode = new CachedValue<>();
+    final CachedValue<ShuffleMode> shuffleMode = new CachedValue<>();
+    final CachedValue<RemotePlayState> playState = new CachedValue<>();
+    final CachedValue<Integer> volume = new CachedValue<>();
+    final CachedValue<Boolean> mute = new CachedValue<>();
+    final CachedValue<Boolean> controlEnabled = new CachedValue<>();
+    final CachedValue<String> activeInput = new CachedValue<>();
+
+    /**
+     * Enables the cache.
+     * 
+     * @param maxAgeInMs
+     *            Maximum age in milliseconds of a cached value before it is read from the speaker again
+     */
+    public void enable(long maxAgeInMs) {
+        if (maxAgeInMs <= 0) {
+            throw new IllegalArgumentException("Maximum age has to be positive");
+        }
+        maxAgeInNs = TimeUnit.MILLISECONDS.toNanos(maxAgeInMs);
+    }
+
+    /**
+     * Disables the cache and discards all cached values.
+     */
+    public void disable() {
+        maxAgeInNs = -1;
+        invalidate();
+    }
+
+    /**
+     * @return True if the cache is enabled
+     */
+    public boolean isEnabled() {
+        return maxAgeInNs > 0;
+    }
+
+    /**
+     * Discards all cached values, so that they are read from the speaker on next access.
+     */
+    public void invalidate() {
+        loopMode.invalidate();
+        shuffleMode.invalidate();
+        playState.invalidate();
+        volume.invalidate();
+        mute.invalidate();
+        controlEnabled.invalidate();
+        activeInput.invalidate();
+    }
+
+    @Override
+    public void onLoopModeChanged(LoopMode loopMode) {
+        this.loopMode.set(loopMode);
+    }
+
+    @Override
+    public void onPlayStateChanged(PlayState playState) {
+        if (playState instanceof RemotePlayState) {
+            this.playState.set((RemotePlayState) playState);
+        } else {
+            this.playState.invalidate();
+        }
+    }
+
+    @Override
+    public void onShuffleModeChanged(ShuffleMode shuffleMode) {
+        this.shuffleMode.set(shuffleMode);
+    }
+
+    @Override
+    public void onVolumeChanged(int volume) {
+        this.volume.set(volume);
+    }
+
+    @Override
+    public void onMuteChanged(boolean mute) {
+        this.mute.set(mute);
+    }
+
+    @Override
+    public void onVolumeControlChanged(boolean enabled) {
+        controlEnabled.set(enabled);
+    }
+
+    @Override
+    public void onInputChanged(String input) {
+        activeInput.set(input);
+    }
+
+    /**
+     * A single cached value together with the time it has been received.
+     */
+    class CachedValue<T> {
+
+        private volatile Entry<T> entry;
+
+        /**
+         * @return The cached value, or null if the cache is disabled or the value is missing or stale
+         */
+        T get() {
+            long maxAge = maxAgeInNs;
+            Entry<T> current = entry;
+            if (maxAge <= 0 || current == null || System.nanoTime() - current.timestamp > maxAge) {
+                return null;
+            }
+            return current.value;
+        }
+
+        void set(T value) {
+            if (isEnabled() && value != null) {
+                entry = new Entry<>(value, System.nanoTime());
+            }
+        }
+
+        void invalidate() {
+            entry = null;
+        }
+    }
+
+    private static class Entry<T> {
+        private final T value;
+        private final long timestamp;
+
+        Entry(T value, long timestamp) {
+            this.value = value;
+            this.timestamp = timestamp;
+        }
+    }
+
+}